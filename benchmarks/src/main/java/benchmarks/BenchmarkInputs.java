@@ -0,0 +1,60 @@
+package benchmarks;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import hasher.WyHash;
+import hasher.XXH3;
+import serializer.JavaSerializer;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds the hashers, serializers and key sets selected by benchmark parameters, so every benchmark
+ * names them the same way.
+ */
+final class BenchmarkInputs {
+
+    private BenchmarkInputs() {
+    }
+
+    static Hasher hasher(String name) {
+        return switch (name) {
+            case "MurmurHash3" -> new MurmurHash3();
+            case "XXH3" -> new XXH3();
+            case "WyHash" -> new WyHash();
+            default -> throw new IllegalArgumentException("Unknown hasher: " + name);
+        };
+    }
+
+    /**
+     * @param name {@code String} for UTF-8 bytes, {@code Java} for {@link JavaSerializer}
+     */
+    static Serializer<String> serializer(String name) {
+        return switch (name) {
+            case "String" -> new StringSerializer(StandardCharsets.UTF_8);
+            case "Java" -> new JavaSerializer<>();
+            default -> throw new IllegalArgumentException("Unknown serializer: " + name);
+        };
+    }
+
+    /**
+     * Returns one string key per rank: the rank, padded to {@code keyLength} characters.
+     */
+    static String[] keysForRanks(int[] ranks, int keyLength) {
+        String[] keys = new String[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            keys[i] = key(ranks[i], keyLength);
+        }
+        return keys;
+    }
+
+    static String key(long rank, int keyLength) {
+        StringBuilder key = new StringBuilder(keyLength).append(rank);
+        while (key.length() < keyLength) {
+            key.append('/');
+        }
+        return key.toString();
+    }
+}
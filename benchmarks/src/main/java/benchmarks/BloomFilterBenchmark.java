@@ -0,0 +1,132 @@
+package benchmarks;
+
+import datastructures.BloomFilter;
+import datastructures.LongBloomFilter;
+import datastructures.ScalableBloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership structures filled to their design capacity with uniformly drawn keys. Hits query keys
+ * that were added, misses query keys that were not.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BloomFilterBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({"MurmurHash3", "XXH3", "WyHash"})
+    public String hasher;
+
+    @Param({"String", "Java"})
+    public String serializer;
+
+    @Param({"16", "64"})
+    public int keyLength;
+
+    @Param({"1000000"})
+    public int numElements;
+
+    @Param({"0.01"})
+    public double errorRate;
+
+    private BloomFilter<String> filter;
+    private BloomFilter<String> other;
+    private ScalableBloomFilter<String> scalable;
+    private LongBloomFilter longFilter;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new BloomFilter<>(errorRate, numElements, BenchmarkInputs.hasher(hasher),
+                BenchmarkInputs.serializer(serializer));
+        scalable = new ScalableBloomFilter<>(errorRate, numElements / 16, 2, 0.8, BenchmarkInputs.hasher(hasher),
+                BenchmarkInputs.serializer(serializer));
+        other = new BloomFilter<>(errorRate, numElements, BenchmarkInputs.hasher(hasher),
+                BenchmarkInputs.serializer(serializer));
+        longFilter = new LongBloomFilter(errorRate, numElements);
+        for (int i = 0; i < numElements; i++) {
+            String key = BenchmarkInputs.key(i, keyLength);
+            filter.add(key);
+            scalable.add(key);
+            longFilter.add(i);
+        }
+        for (int i = 0; i < KEYS; i++) {
+            other.add(BenchmarkInputs.key(numElements + KEYS + i, keyLength));
+        }
+        hits = new String[KEYS];
+        misses = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            hits[i] = BenchmarkInputs.key((long) i * numElements / KEYS, keyLength);
+            misses[i] = BenchmarkInputs.key(numElements + i, keyLength);
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (KEYS - 1);
+    }
+
+    @Benchmark
+    public void add() {
+        filter.add(misses[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return filter.contains(hits[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return filter.contains(misses[nextIndex()]);
+    }
+
+    /**
+     * ORs a filter of the same size into {@link #filter}; cost is proportional to the bit array, so
+     * throughput is per call.
+     */
+    @Benchmark
+    public void union() {
+        filter.union(other);
+    }
+
+    @Benchmark
+    public long cardinality() {
+        return filter.cardinality();
+    }
+
+    @Benchmark
+    public boolean scalableContainsMiss() {
+        // Probes every stage, so it shows the cost of growth
+        return scalable.contains(misses[nextIndex()]);
+    }
+
+    @Benchmark
+    public void longAdd() {
+        longFilter.add(numElements + nextIndex());
+    }
+
+    @Benchmark
+    public boolean longContainsMiss() {
+        return longFilter.contains(numElements + nextIndex());
+    }
+}
@@ -0,0 +1,145 @@
+package benchmarks;
+
+import datastructures.ConcurrentCountMinSketch;
+import datastructures.ConcurrentHeavyKeeperTopK;
+import datastructures.CountMinSketch;
+import datastructures.IngestPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import serializer.Serializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared thread-safe structures updated from several threads at once; reported throughput is the
+ * total over all threads. Run with {@code -t} to change the thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentBenchmark {
+
+    private static final int STREAM_LENGTH = 1 << 18;
+
+    @Param({"XXH3"})
+    public String hasher;
+
+    @Param({"1.1"})
+    public double skew;
+
+    private CountMinSketch<String> plainSketch;
+    private IngestPipeline<String, CountMinSketch<String>> pipeline;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Start threads at different points of the stream
+            next = (int) Thread.currentThread().threadId() * 7919;
+        }
+
+        int nextIndex() {
+            return next++ & (STREAM_LENGTH - 1);
+        }
+    }
+
+    /**
+     * Count-Min state; the other benchmarks do not depend on the update mode, so they run once.
+     */
+    @State(Scope.Benchmark)
+    public static class CountMinSketchState {
+        @Param({"false", "true"})
+        public boolean conservativeUpdate;
+
+        ConcurrentCountMinSketch<String> sketch;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentBenchmark benchmark) {
+            sketch = new ConcurrentCountMinSketch<>(0.0001, 0.001, conservativeUpdate,
+                    BenchmarkInputs.hasher(benchmark.hasher), BenchmarkInputs.serializer("String"));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HeavyKeeperState {
+        @Param({"16"})
+        public int shards;
+
+        ConcurrentHeavyKeeperTopK<String> heavyKeeper;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentBenchmark benchmark) {
+            heavyKeeper = new ConcurrentHeavyKeeperTopK<>(shards, 3, 4096, 100, 1.08,
+                    BenchmarkInputs.hasher(benchmark.hasher), BenchmarkInputs.serializer("String"));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Serializer<String> serializer = BenchmarkInputs.serializer("String");
+        plainSketch = new CountMinSketch<>(0.0001, 0.001, BenchmarkInputs.hasher(hasher), serializer);
+        pipeline = IngestPipeline.forCountMinSketch(
+                new CountMinSketch<>(0.0001, 0.001, BenchmarkInputs.hasher(hasher), serializer),
+                1 << 16, IngestPipeline.Backpressure.BLOCK);
+        keys = BenchmarkInputs.keysForRanks(ZipfStream.generate(1_000_000, STREAM_LENGTH, skew, 42), 32);
+    }
+
+    @Benchmark
+    public void countMinSketchAdd(CountMinSketchState state, Cursor cursor) {
+        state.sketch.add(keys[cursor.nextIndex()], 1);
+    }
+
+    @Benchmark
+    public long countMinSketchEstimate(CountMinSketchState state, Cursor cursor) {
+        return state.sketch.estimateCount(keys[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    public void heavyKeeperInsert(HeavyKeeperState state, Cursor cursor) {
+        state.heavyKeeper.insert(keys[cursor.nextIndex()]);
+    }
+
+    /**
+     * Baseline for the pipeline: a plain sketch behind a lock.
+     */
+    @Benchmark
+    public void synchronizedCountMinSketchAdd(Cursor cursor) {
+        String key = keys[cursor.nextIndex()];
+        synchronized (plainSketch) {
+            plainSketch.add(key, 1);
+        }
+    }
+
+    /**
+     * Producers only publish; a single writer applies the adds in batches, so this measures the rate at
+     * which the writer keeps up once the ring buffer is full.
+     */
+    @Benchmark
+    public void pipelineCountMinSketchAdd(Cursor cursor) {
+        pipeline.add(keys[cursor.nextIndex()]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.close();
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import datastructures.CountMinSketch;
+import datastructures.HashCache;
+import datastructures.LongCountMinSketch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-Min Sketch updates, point queries and merges on a Zipfian key stream. See
+ * {@link CountMinSketchLayoutBenchmark} for the table layouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountMinSketchBenchmark {
+
+    private static final int STREAM_LENGTH = 1 << 18;
+
+    @Param({"MurmurHash3", "XXH3", "WyHash"})
+    public String hasher;
+
+    @Param({"String", "Java"})
+    public String serializer;
+
+    @Param({"16", "64"})
+    public int keyLength;
+
+    @Param({"0.8", "1.2"})
+    public double skew;
+
+    @Param({"0.0001"})
+    public double epsilon;
+
+    private CountMinSketch<String> sketch;
+    private CountMinSketch<String> other;
+    private CountMinSketch<String> cachedSketch;
+    private LongCountMinSketch longSketch;
+    private int[] ranks;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sketch = new CountMinSketch<>(epsilon, 0.001, BenchmarkInputs.hasher(hasher),
+                BenchmarkInputs.serializer(serializer));
+        other = new CountMinSketch<>(epsilon, 0.001, BenchmarkInputs.hasher(hasher),
+                BenchmarkInputs.serializer(serializer));
+        cachedSketch = new CountMinSketch<>(epsilon, 0.001, new HashCache<>(4096, BenchmarkInputs.hasher(hasher),
+                BenchmarkInputs.serializer(serializer)));
+        longSketch = new LongCountMinSketch(epsilon, 0.001);
+        ranks = ZipfStream.generate(1_000_000, STREAM_LENGTH, skew, 42);
+        keys = BenchmarkInputs.keysForRanks(ranks, keyLength);
+        for (String key : keys) {
+            sketch.add(key, 1);
+            other.add(key, 1);
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (STREAM_LENGTH - 1);
+    }
+
+    @Benchmark
+    public void add() {
+        sketch.add(keys[nextIndex()], 1);
+    }
+
+    /**
+     * {@link #add} through a 4096-entry {@link HashCache}; hot keys skip serialization and hashing.
+     */
+    @Benchmark
+    public void addCached() {
+        cachedSketch.add(keys[nextIndex()], 1);
+    }
+
+    @Benchmark
+    public long estimateCount() {
+        return sketch.estimateCount(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public void merge() {
+        sketch.merge(other);
+    }
+
+    @Benchmark
+    public void longAdd() {
+        longSketch.add(ranks[nextIndex()]);
+    }
+
+    @Benchmark
+    public long longEstimateCount() {
+        return longSketch.estimateCount(ranks[nextIndex()]);
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import datastructures.CountMinSketch;
+import hasher.MurmurHash3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Count-Min Sketch memory layouts. A small epsilon keeps the table well beyond L2 so
+ * the per-row cache misses of the standard layout show up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountMinSketchLayoutBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({"STANDARD", "POWER_OF_TWO", "BLOCKED"})
+    public CountMinSketch.Layout layout;
+
+    @Param({"0.00001"})
+    public double epsilon;
+
+    @Param({"0.001"})
+    public double delta;
+
+    private CountMinSketch<String> sketch;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sketch = new CountMinSketch<>(epsilon, delta, layout, new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8));
+        keys = new String[KEYS];
+        Random random = new Random(42);
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + random.nextLong();
+            sketch.add(keys[i], 1);
+        }
+    }
+
+    private String nextKey() {
+        return keys[next++ & (KEYS - 1)];
+    }
+
+    @Benchmark
+    public void add() {
+        sketch.add(nextKey(), 1);
+    }
+
+    @Benchmark
+    public long estimateCount() {
+        return sketch.estimateCount(nextKey());
+    }
+}
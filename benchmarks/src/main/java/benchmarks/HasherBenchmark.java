@@ -0,0 +1,81 @@
+package benchmarks;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import hasher.WyHash;
+import hasher.XXH3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link Hasher} implementations on key sizes typical for sketches: 8-byte ids,
+ * short strings and URL-like keys. Lengths vary around the nominal size so branch prediction on the
+ * length cannot lock onto a single path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HasherBenchmark {
+
+    private static final int KEYS = 1 << 10;
+
+    @Param({"MurmurHash3", "XXH3", "WyHash"})
+    public String hasherName;
+
+    @Param({"8", "16", "40", "128"})
+    public int keyLength;
+
+    private Hasher hasher;
+    private byte[][] keys;
+    private final long[] dest = new long[2];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hasher = switch (hasherName) {
+            case "MurmurHash3" -> new MurmurHash3();
+            case "XXH3" -> new XXH3();
+            case "WyHash" -> new WyHash();
+            default -> throw new IllegalArgumentException(hasherName);
+        };
+        keys = new byte[KEYS][];
+        Random random = new Random(42);
+        for (int i = 0; i < KEYS; i++) {
+            // Nominal length, +/- a quarter
+            int length = Math.max(1, keyLength - keyLength / 4 + random.nextInt(keyLength / 2 + 1));
+            keys[i] = new byte[length];
+            random.nextBytes(keys[i]);
+        }
+    }
+
+    private byte[] nextKey() {
+        return keys[next++ & (KEYS - 1)];
+    }
+
+    @Benchmark
+    public long hash64() {
+        return hasher.hash64(nextKey(), 0xDEADBEEFL);
+    }
+
+    @Benchmark
+    public long[] hash128() {
+        hasher.hash128(nextKey(), 0xDEADBEEFL, dest);
+        return dest;
+    }
+}
@@ -0,0 +1,132 @@
+package benchmarks;
+
+import datastructures.HyperLogLog;
+import datastructures.LongHyperLogLog;
+import datastructures.SlidingWindowHyperLogLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HyperLogLog updates, estimates and merges. Estimate and merge cost is proportional to the number
+ * of registers, so their throughput is reported per call rather than per key.
+ * <p>
+ * The sliding-window benchmarks compare a 15-minute {@link SlidingWindowHyperLogLog} with the approach it
+ * replaces: 15 per-minute sketches merged into a fresh one on every query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HyperLogLogBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({"MurmurHash3", "XXH3", "WyHash"})
+    public String hasher;
+
+    @Param({"String", "Java"})
+    public String serializer;
+
+    @Param({"16", "64"})
+    public int keyLength;
+
+    @Param({"10", "14"})
+    public int b;
+
+    private HyperLogLog<String> hll;
+    private HyperLogLog<String> other;
+    private LongHyperLogLog longHll;
+    private SlidingWindowHyperLogLog<String> slidingHll;
+    private List<HyperLogLog<String>> minuteHlls;
+    private long nowMillis;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hll = new HyperLogLog<>(b, BenchmarkInputs.hasher(hasher), BenchmarkInputs.serializer(serializer));
+        other = new HyperLogLog<>(b, BenchmarkInputs.hasher(hasher), BenchmarkInputs.serializer(serializer));
+        longHll = new LongHyperLogLog(b);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = BenchmarkInputs.key(i, keyLength);
+            hll.add(keys[i]);
+            other.add(BenchmarkInputs.key(KEYS + i, keyLength));
+        }
+
+        slidingHll = new SlidingWindowHyperLogLog<>(b, Duration.ofMinutes(15), () -> nowMillis,
+                BenchmarkInputs.hasher(hasher), BenchmarkInputs.serializer(serializer));
+        minuteHlls = new ArrayList<>(15);
+        for (int minute = 0; minute < 15; minute++) {
+            HyperLogLog<String> minuteHll = new HyperLogLog<>(b, BenchmarkInputs.hasher(hasher),
+                    BenchmarkInputs.serializer(serializer));
+            minuteHlls.add(minuteHll);
+            for (int i = 0; i < KEYS / 15; i++) {
+                String key = keys[(minute * (KEYS / 15) + i) & (KEYS - 1)];
+                minuteHll.add(key);
+                slidingHll.add(key);
+                nowMillis += 60_000 / (KEYS / 15);
+            }
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (KEYS - 1);
+    }
+
+    @Benchmark
+    public void add() {
+        hll.add(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public long estimate() {
+        return hll.estimate();
+    }
+
+    @Benchmark
+    public void merge() {
+        hll.merge(other);
+    }
+
+    @Benchmark
+    public void slidingAdd() {
+        slidingHll.add(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public long slidingEstimate() {
+        return slidingHll.estimate();
+    }
+
+    @Benchmark
+    public long minuteMergeEstimate() {
+        HyperLogLog<String> merged = new HyperLogLog<>(b, null, null);
+        for (HyperLogLog<String> minute : minuteHlls) {
+            merged.merge(minute);
+        }
+        return merged.estimate();
+    }
+
+    @Benchmark
+    public void longAdd() {
+        longHll.add(next++);
+    }
+}
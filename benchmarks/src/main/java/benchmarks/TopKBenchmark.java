@@ -0,0 +1,123 @@
+package benchmarks;
+
+import datastructures.CountAllTopK;
+import datastructures.HeavyKeeperTopK;
+import datastructures.LongHeavyKeeper;
+import datastructures.LongSpaceSavingTopK;
+import datastructures.SpaceSavingTopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import serializer.Serializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of the top-k trackers on a Zipfian stream of string keys (and of the raw ranks
+ * for the primitive variants), plus HeavyKeeper reporting and merging.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopKBenchmark {
+
+    private static final int STREAM_LENGTH = 1 << 20;
+
+    @Param({"100", "10000"})
+    public int k;
+
+    @Param({"0.8", "1.2"})
+    public double skew;
+
+    @Param({"1000000"})
+    public int distinct;
+
+    @Param({"MurmurHash3", "XXH3", "WyHash"})
+    public String hasher;
+
+    private int[] ranks;
+    private String[] keys;
+    private int next;
+
+    private CountAllTopK<String> countAll;
+    private HeavyKeeperTopK<String> heavyKeeper;
+    private HeavyKeeperTopK<String> otherHeavyKeeper;
+    private LongHeavyKeeper longHeavyKeeper;
+    private SpaceSavingTopK<String> spaceSaving;
+    private LongSpaceSavingTopK longSpaceSaving;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ranks = ZipfStream.generate(distinct, STREAM_LENGTH, skew, 42);
+        keys = new String[STREAM_LENGTH];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            keys[i] = "https://example.com/item/" + ranks[i];
+        }
+
+        Serializer<String> serializer = BenchmarkInputs.serializer("String");
+        int w = Math.max(1024, k * 8);
+        countAll = new CountAllTopK<>(0.0001, 0.001, k, BenchmarkInputs.hasher(hasher), serializer);
+        heavyKeeper = new HeavyKeeperTopK<>(3, w, k, 1.08, BenchmarkInputs.hasher(hasher), serializer);
+        otherHeavyKeeper = new HeavyKeeperTopK<>(3, w, k, 1.08, BenchmarkInputs.hasher(hasher), serializer);
+        longHeavyKeeper = new LongHeavyKeeper(3, w, k, 1.08);
+        spaceSaving = new SpaceSavingTopK<>(k, BenchmarkInputs.hasher(hasher), serializer);
+        longSpaceSaving = new LongSpaceSavingTopK(k);
+        // Both trackers start full, so getTopK and merge see k entries
+        for (int i = 0; i < STREAM_LENGTH / 4; i++) {
+            heavyKeeper.insert(keys[STREAM_LENGTH / 2 + i]);
+            otherHeavyKeeper.insert(keys[i]);
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (STREAM_LENGTH - 1);
+    }
+
+    @Benchmark
+    public void countAllTopK() {
+        countAll.add(keys[nextIndex()], 1);
+    }
+
+    @Benchmark
+    public void heavyKeeperTopK() {
+        heavyKeeper.insert(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public void longHeavyKeeper() {
+        longHeavyKeeper.insert(ranks[nextIndex()]);
+    }
+
+    @Benchmark
+    public Map<String, Integer> heavyKeeperGetTopK() {
+        return heavyKeeper.getTopK();
+    }
+
+    @Benchmark
+    public void heavyKeeperMerge() {
+        heavyKeeper.merge(otherHeavyKeeper);
+    }
+
+    @Benchmark
+    public void spaceSavingTopK() {
+        spaceSaving.add(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public void longSpaceSavingTopK() {
+        longSpaceSaving.add(ranks[nextIndex()]);
+    }
+}
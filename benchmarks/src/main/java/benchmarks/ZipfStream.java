@@ -0,0 +1,34 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Pre-generated stream of ranks drawn from a Zipf distribution, so sampling cost stays out of the
+ * measured code.
+ */
+final class ZipfStream {
+
+    private ZipfStream() {
+    }
+
+    /**
+     * @param distinct number of distinct ranks, {@code 0 .. distinct - 1}
+     * @param skew     Zipf exponent; {@code 0} is uniform, around {@code 1} is typical for web traffic
+     */
+    static int[] generate(int distinct, int length, double skew, long seed) {
+        double[] cdf = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] stream = new int[length];
+        for (int i = 0; i < length; i++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            stream[i] = idx < 0 ? -idx - 1 : idx;
+        }
+        return stream;
+    }
+}
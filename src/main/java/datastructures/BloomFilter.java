@@ -0,0 +1,277 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import serializer.JavaSerializer;
+import serializer.Serializer;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BloomFilter<T> implements IBloomFilter<T>, SketchMetrics {
+    final double errorRate;
+    final long numElements;
+    final BitSet bitSet;
+    int bitsSetCount = 0;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private final HashCache<T> hashCache; // null: every item is serialized and hashed
+    private final int numHashes;
+    private final int sliceSize;
+
+    public BloomFilter(double errorRate, long numElements, Hasher hasher, Serializer<T> serializer) {
+        this(errorRate, numElements, hasher, serializer, null);
+    }
+
+    /**
+     * Looks items up in {@code hashCache} before hashing them, and uses its hasher and serializer.
+     */
+    public BloomFilter(double errorRate, long numElements, HashCache<T> hashCache) {
+        this(errorRate, numElements, hashCache.hasher(), hashCache.serializer(), hashCache);
+    }
+
+    private BloomFilter(double errorRate, long numElements, Hasher hasher, Serializer<T> serializer,
+                        HashCache<T> hashCache) {
+        this.errorRate = errorRate;
+        this.numElements = numElements;
+        this.hasher = hasher;
+        this.serializer = serializer;
+        this.hashCache = hashCache;
+
+        int bitSetSize = calculateBitSetSize(numElements, errorRate);
+        this.numHashes = calculateNumHashes(bitSetSize, numElements);
+
+        // Ensure that the BitSet can be evenly divided into equal-sized slices
+        this.sliceSize = (int) Math.ceil((double) bitSetSize / numHashes);
+        int adjustedSize = sliceSize * numHashes;
+
+        this.bitSet = new BitSet(adjustedSize);
+    }
+
+    public BloomFilter(double errorRate, long numElements) {
+        this(errorRate, numElements, new MurmurHash3(), new JavaSerializer<>());
+    }
+
+    /**
+     * Creates the filter with the lowest error rate for {@code numElements} whose
+     * {@link #memoryFootprintBytes()} fits in {@code budgetBytes}.
+     *
+     * @throws IllegalArgumentException if the budget does not even fit a filter with a single hash
+     *                                  function (error rate 0.5)
+     */
+    public static <T> BloomFilter<T> withMemoryBudget(long budgetBytes, long numElements, Hasher hasher,
+                                                      Serializer<T> serializer) {
+        if (numElements < 1) {
+            throw new IllegalArgumentException("numElements must be positive");
+        }
+        double loose = 0.5;
+        if (!fits(loose, numElements, budgetBytes)) {
+            throw new IllegalArgumentException("Memory budget of " + budgetBytes + " bytes is too small");
+        }
+        // Bisect on a log scale; the footprint only grows as the error rate shrinks
+        double tight = Double.MIN_NORMAL;
+        for (int i = 0; i < 64; i++) {
+            double mid = Math.sqrt(loose * tight);
+            if (fits(mid, numElements, budgetBytes)) {
+                loose = mid;
+            } else {
+                tight = mid;
+            }
+        }
+        return new BloomFilter<>(loose, numElements, hasher, serializer);
+    }
+
+    private static boolean fits(double errorRate, long numElements, long budgetBytes) {
+        // Keep clear of the int range of the BitSet
+        return -numElements * Math.log(errorRate) / Math.pow(Math.log(2), 2) < Integer.MAX_VALUE / 2
+                && footprint(errorRate, numElements) <= budgetBytes;
+    }
+
+    static long footprint(double errorRate, long numElements) {
+        int bitSetSize = calculateBitSetSize(numElements, errorRate);
+        int numHashes = calculateNumHashes(bitSetSize, numElements);
+        long bits = (long) Math.ceil((double) bitSetSize / numHashes) * numHashes;
+        return MemoryFootprint.shallowSize(BloomFilter.class) + MemoryFootprint.bitSet(bits);
+    }
+
+    private static int calculateBitSetSize(long n, double p) {
+        return (int) Math.ceil(-n * Math.log(p) / (Math.pow(Math.log(2), 2)));
+    }
+
+    private static int calculateNumHashes(int m, long n) {
+        return (int) Math.round((m / (double) n) * Math.log(2));
+    }
+
+    @Override
+    public void add(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            add(cached.h1, cached.h2);
+            return;
+        }
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        add(h1, h2);
+    }
+
+    /**
+     * Writes the hash pair of {@code item} to {@code hashes[index]} and {@code hashes[index + 1]}, taking it
+     * from the hash cache if there is one. Used by the batch path; single items hash into locals.
+     */
+    void hash(T item, long[] hashes, int index) {
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            hashes[index] = cached.h1;
+            hashes[index + 1] = cached.h2;
+        } else {
+            byte[] data = serializer.serialize(item);
+            hashes[index] = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+            hashes[index + 1] = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        }
+    }
+
+    /**
+     * Adds {@code items[0, count)} in two passes: all items are hashed first, then their bits are set,
+     * so the cache misses of the second pass can overlap. {@code hashes} needs two slots per item.
+     */
+    @SuppressWarnings("unchecked")
+    void addBatch(Object[] items, int count, long[] hashes) {
+        for (int i = 0; i < count; i++) {
+            hash((T) items[i], hashes, 2 * i);
+        }
+        for (int i = 0; i < count; i++) {
+            add(hashes[2 * i], hashes[2 * i + 1]);
+        }
+    }
+
+    void add(long h1, long h2) {
+        for (int i = 0; i < numHashes; i++) {
+            long combined = h1 + i * h2;
+            int indexInSlice = (int) Long.remainderUnsigned(combined, sliceSize);
+            int index = i * sliceSize + indexInSlice;
+            if (!bitSet.get(index)) {
+                bitSet.set(index);
+                bitsSetCount++;
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            return contains(cached.h1, cached.h2);
+        }
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        return contains(h1, h2);
+    }
+
+
+    boolean contains(long h1, long h2) {
+        for (int i = 0; i < numHashes; i++) {
+            long combined = h1 + i * h2;
+            int indexInSlice = (int) Long.remainderUnsigned(combined, sliceSize);
+            int index = i * sliceSize + indexInSlice;
+            if (!bitSet.get(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #union}; kept for symmetry with the other sketches' {@code merge}.
+     */
+    public void merge(BloomFilter<T> other) {
+        union(other);
+    }
+
+    /**
+     * Adds every item of {@code other} to this filter by OR-ing the bit arrays, as if the items had
+     * been added here. Both filters must have been built with the same parameters and hasher.
+     */
+    public void union(BloomFilter<T> other) {
+        checkCompatible(other);
+        bitSet.or(other.bitSet);
+        bitsSetCount = bitSet.cardinality();
+    }
+
+    /**
+     * Keeps only the bits set in both filters, so that this filter answers {@code contains} for items
+     * added to both. Bits set in both filters by different items survive as well, so the false positive
+     * rate is at least, and usually higher than, that of a filter built from the common items only.
+     */
+    public void intersect(BloomFilter<T> other) {
+        checkCompatible(other);
+        bitSet.and(other.bitSet);
+        bitsSetCount = bitSet.cardinality();
+    }
+
+    // Every filter hashes with the HashSeed seeds, so equal dimensions and hasher mean equal bit positions
+    private void checkCompatible(BloomFilter<T> other) {
+        if (other.numHashes != numHashes || other.sliceSize != sliceSize) {
+            throw new IllegalArgumentException("Bloom filters have different dimensions");
+        }
+        if (other.hasher.getClass() != hasher.getClass()) {
+            throw new IllegalArgumentException("Bloom filters use different hashers");
+        }
+    }
+
+    /**
+     * Estimates the number of distinct items added from the number of set bits. Every item sets one bit
+     * in each slice, so after {@code n} items a slice bit is still clear with probability
+     * {@code (1 - 1/sliceSize)^n}; solving for {@code n} gives the estimate. Returns
+     * {@link Long#MAX_VALUE} once every bit is set.
+     */
+    public long cardinality() {
+        int bits = bitCount();
+        if (bitsSetCount >= bits) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(Math.log1p(-(double) bitsSetCount / bits) / Math.log1p(-1.0 / sliceSize));
+    }
+
+    int bitCount() {
+        return sliceSize * numHashes;
+    }
+
+    /**
+     * False-positive probability at the current fill: a query hits a set bit in every slice with
+     * probability {@code fill^numHashes}.
+     */
+    double estimatedFalsePositiveRate() {
+        return Math.pow((double) bitsSetCount / bitCount(), numHashes);
+    }
+
+    /**
+     * The filter and its bit array; the hasher, serializer and hash cache are not counted.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.bitSet(bitSet.size());
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("bits", bitCount());
+        metrics.put("bitsSet", bitsSetCount);
+        metrics.put("fillRatio", (double) bitsSetCount / bitCount());
+        metrics.put("numHashes", numHashes);
+        metrics.put("estimatedFpp", estimatedFalsePositiveRate());
+        metrics.put("targetFpp", errorRate);
+        metrics.put("estimatedCardinality", cardinality());
+        return metrics;
+    }
+
+}
@@ -0,0 +1,35 @@
+package datastructures;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event committed when a {@link ScalableBloomFilter} adds a stage.
+ */
+@Name("datastructures.BloomFilterGrowth")
+@Label("Bloom Filter Growth")
+@Category("Sketches")
+@Description("A scalable Bloom filter added a stage because its last stage was saturated")
+final class BloomFilterGrowthEvent extends Event {
+    @Label("Stages")
+    int stages;
+
+    @Label("Stage Capacity")
+    long capacity;
+
+    @Label("Stage Error Rate")
+    double errorRate;
+
+    static void emit(int stages, long capacity, double errorRate) {
+        BloomFilterGrowthEvent event = new BloomFilterGrowthEvent();
+        if (event.isEnabled()) {
+            event.stages = stages;
+            event.capacity = capacity;
+            event.errorRate = errorRate;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Count-Min Sketch. Counters are updated in place through a {@link VarHandle},
+ * so concurrent writers never lose increments.
+ * <p>
+ * With conservative update enabled, an insertion only raises the counters that would otherwise
+ * end up below the new estimate, instead of adding to every row. Estimates still never fall below
+ * the true count, but the overestimate drops substantially on skewed streams, which usually allows
+ * a smaller width for the same observed error.
+ */
+public class ConcurrentCountMinSketch<T> implements SketchMetrics {
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final long[] table;
+    private final int depth;
+    private final int width;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private final double epsilon;
+    private final double delta;
+    private final boolean conservativeUpdate;
+    private final Object[] stripes;
+    private final LongAdder totalCount = new LongAdder();
+
+    public ConcurrentCountMinSketch(double epsilon, double delta, boolean conservativeUpdate, Hasher hasher, Serializer<T> serializer) {
+        if (epsilon <= 0 || delta <= 0 || epsilon >= 1 || delta >= 1) {
+            throw new IllegalArgumentException("Epsilon and delta must be in (0, 1)");
+        }
+
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.depth = (int) Math.ceil(Math.log(1.0 / delta));
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.table = new long[depth * width];
+        this.conservativeUpdate = conservativeUpdate;
+        this.hasher = hasher;
+        this.serializer = serializer;
+
+        this.stripes = new Object[conservativeUpdate ? LOCK_STRIPES : 0];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public ConcurrentCountMinSketch(double epsilon, double delta, Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, false, hasher, serializer);
+    }
+
+    private int offset(int row, int col) {
+        return row * width + col;
+    }
+
+    public void add(T item, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+
+        if (conservativeUpdate) {
+            // Updates of the same item must not interleave, otherwise two writers could both raise
+            // a counter to the same target and one increment would be lost.
+            synchronized (stripes[(int) (h1 >>> 58)]) {
+                addConservative(h1, h2, value);
+            }
+        } else {
+            for (int i = 0; i < depth; i++) {
+                int col = Math.floorMod(h1 + i * h2, width);
+                COUNTERS.getAndAdd(table, offset(i, col), value);
+            }
+        }
+        totalCount.add(value);
+    }
+
+    private void addConservative(long h1, long h2, long value) {
+        long target = estimateCount(h1, h2) + value;
+        for (int i = 0; i < depth; i++) {
+            int col = Math.floorMod(h1 + i * h2, width);
+            int idx = offset(i, col);
+            // Counters only ever grow, so raising to the target with a CAS loop is safe against
+            // concurrent updates of other items sharing this counter.
+            long current = (long) COUNTERS.getVolatile(table, idx);
+            while (current < target && !COUNTERS.weakCompareAndSet(table, idx, current, target)) {
+                current = (long) COUNTERS.getVolatile(table, idx);
+            }
+        }
+    }
+
+    public long estimateCount(T item) {
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        return estimateCount(h1, h2);
+    }
+
+    private long estimateCount(long h1, long h2) {
+        long min = Long.MAX_VALUE;
+
+        for (int i = 0; i < depth; i++) {
+            int col = Math.floorMod(h1 + i * h2, width);
+            min = Math.min(min, (long) COUNTERS.getVolatile(table, offset(i, col)));
+        }
+
+        return min;
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public long getErrorBound() {
+        return Math.round(epsilon * totalCount.sum());
+    }
+
+    public boolean isConservativeUpdate() {
+        return conservativeUpdate;
+    }
+
+    /**
+     * The table, the lock stripes and the total counter; cells the {@link LongAdder} adds under
+     * contention, a few hundred bytes, are not counted.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(table) + MemoryFootprint.of(stripes)
+                + stripes.length * MemoryFootprint.shallowSize(Object.class) + MemoryFootprint.shallowSize(LongAdder.class);
+    }
+
+    /**
+     * Same readings as {@link CountMinSketch#metrics()}, taken without blocking writers.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        long total = totalCount.sum();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("depth", depth);
+        metrics.put("width", width);
+        metrics.put("totalCount", total);
+        metrics.put("meanCounterValue", (double) total / width);
+        metrics.put("errorBound", Math.round(epsilon * total));
+        return metrics;
+    }
+
+}
@@ -0,0 +1,119 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread-safe HeavyKeeper top-k made of independent {@link HeavyKeeperTopK} shards. Every flow is
+ * routed by its hash to exactly one shard, and each shard is only ever mutated by one thread at a time,
+ * so writers on different shards never contend. Because a flow lives in a single shard, the global
+ * top-k is simply the {@code k} largest entries over all shard heaps.
+ * <p>
+ * Each shard has its own {@code d * w} buckets and its own heap of size {@code k}, so memory grows
+ * linearly with the number of shards.
+ */
+public class ConcurrentHeavyKeeperTopK<T> implements SketchMetrics {
+    // Scratch for the 128-bit flow hash, which is computed outside the shard lock
+    private static final ThreadLocal<long[]> HASHES = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final HeavyKeeperTopK<T>[] shards;
+    private final int k;
+    private final long seed;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+
+    public ConcurrentHeavyKeeperTopK(int shards, int d, int w, int k, double b, long seed,
+                                     Hasher hasher, Serializer<T> serializer) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        @SuppressWarnings("unchecked")
+        HeavyKeeperTopK<T>[] trackers = (HeavyKeeperTopK<T>[]) new HeavyKeeperTopK<?>[shards];
+        for (int i = 0; i < shards; i++) {
+            trackers[i] = new HeavyKeeperTopK<>(d, w, k, b, seed, hasher, serializer);
+        }
+        this.shards = trackers;
+        this.k = k;
+        this.seed = seed;
+        this.hasher = hasher;
+        this.serializer = serializer;
+    }
+
+    public ConcurrentHeavyKeeperTopK(int shards, int d, int w, int k, double b, Hasher hasher, Serializer<T> serializer) {
+        this(shards, d, w, k, b, HashSeed.PRIMARY_HASH_SEED, hasher, serializer);
+    }
+
+    public void insert(T flow) {
+        // Hash outside the lock; only the bucket and heap updates are serialized per shard
+        long[] hashes = HASHES.get();
+        hasher.hash128(serializer.serialize(flow), seed, hashes);
+        // Low half of the fingerprint picks the shard; rows use the high half of the row hashes
+        int shard = (int) (((hashes[0] & 0xFFFFFFFFL) * shards.length) >>> 32);
+        HeavyKeeperTopK<T> target = shards[shard];
+        synchronized (target) {
+            target.insert(flow, hashes[0], hashes[1]);
+        }
+    }
+
+    /**
+     * Returns the {@code k} flows with the largest counts over all shards, ordered by descending count.
+     */
+    public Map<T, Integer> getTopK() {
+        List<Map.Entry<T, Integer>> all = new ArrayList<>();
+        for (HeavyKeeperTopK<T> shard : shards) {
+            synchronized (shard) {
+                all.addAll(shard.getTopK().entrySet());
+            }
+        }
+        all.sort(Map.Entry.<T, Integer>comparingByValue().reversed());
+
+        Map<T, Integer> topK = new LinkedHashMap<>();
+        for (Map.Entry<T, Integer> entry : all.subList(0, Math.min(k, all.size()))) {
+            topK.put(entry.getKey(), entry.getValue());
+        }
+        return topK;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        long bytes = MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(shards);
+        for (HeavyKeeperTopK<T> shard : shards) {
+            bytes += shard.memoryFootprintBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Sums the event counters and tracked flows of all shards; {@code minTrackedCount} is the smallest
+     * over shards.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("shards", shards.length);
+        for (HeavyKeeperTopK<T> shard : shards) {
+            Map<String, Number> shardMetrics;
+            synchronized (shard) {
+                shardMetrics = shard.metrics();
+            }
+            for (Map.Entry<String, Number> metric : shardMetrics.entrySet()) {
+                if (metric.getKey().equals("minTrackedCount")) {
+                    metrics.merge(metric.getKey(), metric.getValue(), (a, b) -> Math.min(a.longValue(), b.longValue()));
+                } else {
+                    metrics.merge(metric.getKey(), metric.getValue(), (a, b) -> a.longValue() + b.longValue());
+                }
+            }
+        }
+        return metrics;
+    }
+
+}
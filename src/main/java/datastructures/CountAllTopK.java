@@ -0,0 +1,247 @@
+package datastructures;
+
+import java.util.*;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+
+public class CountAllTopK<T> extends CountMinSketch<T> {
+    private final IndexedMinHeap minHeap; // Maintains lowest count at top, keyed by fingerprint
+    private final Object[] items; // Tracked item per heap slot; null in fingerprint-only mode
+    private final long[] rowHashes; // second half of the item hash per heap slot, for re-estimation
+    private final KeyDictionary<T> dictionary;
+    private long evictions = 0;
+
+    public CountAllTopK(double epsilon, double delta, int k, Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, k, hasher, serializer, null);
+    }
+
+    /**
+     * Fingerprint-only tracker: items are identified by their 64-bit hash and handed to
+     * {@code dictionary} instead of being retained.
+     */
+    public CountAllTopK(double epsilon, double delta, int k, Hasher hasher, Serializer<T> serializer,
+                        KeyDictionary<T> dictionary) {
+        super(epsilon, delta, hasher, serializer);
+        this.minHeap = new IndexedMinHeap(k);
+        this.items = dictionary == null ? new Object[k] : null;
+        this.rowHashes = new long[k];
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Looks items up in {@code hashCache} before hashing them, and uses its hasher and serializer.
+     */
+    public CountAllTopK(double epsilon, double delta, int k, HashCache<T> hashCache) {
+        super(epsilon, delta, hashCache);
+        this.minHeap = new IndexedMinHeap(k);
+        this.items = new Object[k];
+        this.rowHashes = new long[k];
+        this.dictionary = null;
+    }
+
+    @Override
+    public void add(T item, long value) {
+        addAndEstimate(item, value);
+    }
+
+    @Override
+    long addAndEstimate(T item, long h1, long h2, long value) {
+        long estimated = addAndEstimate(h1, h2, value); // Update the sketch and read back in one pass
+
+        // An item is only ever tracked with a count no larger than its current estimate, and it needs
+        // to beat the minimum to enter a full heap. So anything at or below the minimum can be skipped
+        // without a map lookup, which is the common case for the long tail of a skewed stream.
+        if (minHeap.isFull() && estimated <= minHeap.minCount()) {
+            return estimated;
+        }
+
+        // h1 doubles as the item's fingerprint
+        int slot = minHeap.slotOf(h1);
+        if (slot != IndexedMinHeap.ABSENT) {
+            // Item is already in Top-K: refresh its count in O(log K)
+            minHeap.update(slot, estimated);
+        } else if (!minHeap.isFull()) {
+            // Still space in Top-K: add new item
+            track(minHeap.offer(h1, estimated), h1, h2, item);
+        } else {
+            // Replace least frequent item, reusing its heap slot
+            evictions++;
+            TopKEvictionEvent.emit(CountAllTopK.class, minHeap.minCount(), estimated);
+            if (dictionary != null) {
+                dictionary.release(minHeap.keyAt(minHeap.minSlot()));
+            }
+            track(minHeap.replaceMin(h1, estimated), h1, h2, item);
+        }
+        return estimated;
+    }
+
+    /**
+     * Every item also has to go through the heap, so there is no separate hashing pass.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    void addBatch(Object[] items, int count, long[] hashes) {
+        for (int i = 0; i < count; i++) {
+            addAndEstimate((T) items[i], 1);
+        }
+    }
+
+    private void track(int slot, long fingerprint, long h2, T item) {
+        rowHashes[slot] = h2;
+        if (items != null) {
+            items[slot] = item;
+        } else {
+            dictionary.record(fingerprint, item);
+        }
+    }
+
+    /**
+     * Adds the counts of {@code other} and rebuilds the heap: every item tracked here or, if {@code other}
+     * is a {@code CountAllTopK} too, tracked there is re-estimated against the merged sketch, and the
+     * {@code k} largest are kept.
+     */
+    @Override
+    public void merge(CountMinSketch<T> other) {
+        super.merge(other);
+        rebuildHeap(other instanceof CountAllTopK<T> topK ? topK : null);
+    }
+
+    /**
+     * Removes the counts of {@code other} and re-estimates the tracked items, dropping those whose estimate
+     * falls to zero. Items that were not tracked are not reconsidered, so an item that only now ranks among
+     * the top k is picked up the next time it is added.
+     */
+    @Override
+    public void subtract(CountMinSketch<T> other) {
+        super.subtract(other);
+        rebuildHeap(null);
+    }
+
+    private void rebuildHeap(CountAllTopK<T> other) {
+        int capacity = minHeap.size() + (other == null ? 0 : other.minHeap.size());
+        List<Candidate<T>> candidates = new ArrayList<>(capacity);
+        LongIntHashMap byFingerprint = new LongIntHashMap(capacity);
+        collectCandidates(this, true, candidates, byFingerprint);
+        if (other != null) {
+            collectCandidates(other, false, candidates, byFingerprint);
+        }
+        for (Candidate<T> candidate : candidates) {
+            candidate.count = estimateCount(candidate.fp, candidate.h2);
+        }
+        candidates.sort((x, y) -> Long.compare(y.count, x.count));
+
+        minHeap.clear();
+        if (items != null) {
+            Arrays.fill(items, null);
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate<T> candidate = candidates.get(i);
+            if (i < rowHashes.length && candidate.count > 0) {
+                int slot = minHeap.offer(candidate.fp, candidate.count);
+                rowHashes[slot] = candidate.h2;
+                if (items != null) {
+                    items[slot] = candidate.item;
+                } else if (!candidate.local && candidate.item != null) {
+                    dictionary.record(candidate.fp, candidate.item);
+                }
+            } else if (dictionary != null && candidate.local) {
+                dictionary.release(candidate.fp);
+            }
+        }
+    }
+
+    private static final class Candidate<T> {
+        final long fp;
+        final long h2;
+        final T item;
+        final boolean local;
+        long count;
+
+        Candidate(long fp, long h2, T item, boolean local) {
+            this.fp = fp;
+            this.h2 = h2;
+            this.item = item;
+            this.local = local;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void collectCandidates(CountAllTopK<T> source, boolean local, List<Candidate<T>> candidates,
+                                              LongIntHashMap byFingerprint) {
+        source.minHeap.sort();
+        for (int rank = 0; rank < source.minHeap.size(); rank++) {
+            int slot = source.minHeap.slotAtRank(rank);
+            long fp = source.minHeap.keyAt(slot);
+            if (byFingerprint.get(fp) != LongIntHashMap.ABSENT) {
+                continue;
+            }
+            byFingerprint.put(fp, candidates.size());
+            T item;
+            if (source.items != null) {
+                item = (T) source.items[slot];
+            } else {
+                // A local key is already in the dictionary; a foreign one has to be copied over
+                item = local ? null : source.dictionary.resolve(fp);
+            }
+            candidates.add(new Candidate<>(fp, source.rowHashes[slot], item, local));
+        }
+    }
+
+    /**
+     * Resets the sketch and empties the heap; in fingerprint-only mode every tracked key is released
+     * from the dictionary.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        if (dictionary != null) {
+            minHeap.sort();
+            for (int rank = 0; rank < minHeap.size(); rank++) {
+                dictionary.release(minHeap.keyAt(minHeap.slotAtRank(rank)));
+            }
+        } else {
+            Arrays.fill(items, null);
+        }
+        minHeap.clear();
+        evictions = 0;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return super.memoryFootprintBytes() + minHeap.memoryFootprintBytes() + MemoryFootprint.of(items)
+                + MemoryFootprint.of(rowHashes);
+    }
+
+    /**
+     * Adds the heap readings to the sketch metrics.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = super.metrics();
+        metrics.put("trackedItems", minHeap.size());
+        metrics.put("minTrackedCount", minHeap.size() == 0 ? 0 : minHeap.minCount());
+        metrics.put("heapEvictions", evictions);
+        return metrics;
+    }
+
+    /**
+     * Returns the tracked items ordered by descending estimated count. In fingerprint-only mode the
+     * items are resolved through the dictionary, and those it cannot resolve are left out.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map.Entry<T, Long>> getTopK() {
+        minHeap.sort();
+        List<Map.Entry<T, Long>> result = new ArrayList<>(minHeap.size());
+        for (int rank = 0; rank < minHeap.size(); rank++) {
+            int slot = minHeap.slotAtRank(rank);
+            T item = items != null ? (T) items[slot] : dictionary.resolve(minHeap.keyAt(slot));
+            if (item != null) {
+                result.add(new AbstractMap.SimpleImmutableEntry<>(item, minHeap.countAt(slot)));
+            }
+        }
+        return result;
+    }
+
+}
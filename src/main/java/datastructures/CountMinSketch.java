@@ -0,0 +1,494 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class CountMinSketch<T> implements SketchMetrics {
+
+    /**
+     * Size of a single counter. Counters are unsigned, so {@code BITS_16} counts up to 65,535.
+     */
+    public enum CounterWidth {
+        BITS_8(0xFFL),
+        BITS_16(0xFFFFL),
+        BITS_32(0xFFFFFFFFL),
+        BITS_64(Long.MAX_VALUE);
+
+        final long maxValue;
+
+        CounterWidth(long maxValue) {
+            this.maxValue = maxValue;
+        }
+    }
+
+    /**
+     * What happens when a counter narrower than 64 bits would overflow.
+     */
+    public enum OverflowPolicy {
+        /** The counter sticks at its maximum value; estimates may then underestimate heavy items. */
+        SATURATE,
+        /** The whole table is copied to the next wider counter type, so no count is ever lost. */
+        PROMOTE
+    }
+
+    /**
+     * How counters are arranged in memory and how an item is mapped to them.
+     */
+    public enum Layout {
+        /**
+         * {@code depth} rows of {@code ceil(e / epsilon)} counters; the column is a modulo of the hash.
+         */
+        STANDARD,
+        /**
+         * Same as {@link #STANDARD}, but the width is rounded up to a power of two so the column is a
+         * bit mask instead of a division. The error bound is unchanged or tighter, at the cost of up
+         * to twice the memory.
+         */
+        POWER_OF_TWO,
+        /**
+         * All counters of an item live in one block of adjacent counters, each row owning a slice of at
+         * least {@value #MIN_SLOTS_PER_ROW} slots. A block holds {@value #BLOCK_SIZE} counters (one or two
+         * cache lines) up to a depth of 8 and grows to {@code MIN_SLOTS_PER_ROW * depth} counters beyond
+         * that. Every row still has at least {@code ceil(e / epsilon)} possible positions, so the expected
+         * per-row error is unchanged. However, two items landing in the same block meet in each row with
+         * probability {@code 1 / slotsPerRow}, so the rows are no longer independent: the bound
+         * {@code epsilon * N} holds with noticeably lower probability than {@code 1 - delta}, and a
+         * smaller delta buys less here than with the other layouts.
+         */
+        BLOCKED;
+
+        static final int BLOCK_SIZE = 16;
+        // With a single slot per row every row of an item would hit the same counter as every other
+        // item of its block, and the extra rows would add nothing
+        static final int MIN_SLOTS_PER_ROW = 2;
+    }
+
+    private CounterArray table;
+    private final int depth;
+    private final int width;
+    private final Layout layout;
+    private final int mask;
+    private final int blockSize;
+    private final int slotsPerRow;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private final HashCache<T> hashCache; // null: every item is serialized and hashed
+    private final double epsilon;
+    private final double delta;
+    private long totalCount = 0;
+
+    public CountMinSketch(double epsilon, double delta, Layout layout, CounterWidth counterWidth,
+                          OverflowPolicy overflowPolicy, Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, layout, counterWidth, overflowPolicy, hasher, serializer, null);
+    }
+
+    /**
+     * Looks items up in {@code hashCache} before hashing them, and uses its hasher and serializer.
+     */
+    public CountMinSketch(double epsilon, double delta, HashCache<T> hashCache) {
+        this(epsilon, delta, Layout.STANDARD, CounterWidth.BITS_64, OverflowPolicy.PROMOTE, hashCache.hasher(),
+                hashCache.serializer(), hashCache);
+    }
+
+    private CountMinSketch(double epsilon, double delta, Layout layout, CounterWidth counterWidth,
+                           OverflowPolicy overflowPolicy, Hasher hasher, Serializer<T> serializer,
+                           HashCache<T> hashCache) {
+        if (epsilon <= 0 || delta <= 0 || epsilon >= 1 || delta >= 1) {
+            throw new IllegalArgumentException("Epsilon and delta must be in (0, 1)");
+        }
+
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.layout = layout;
+        this.depth = (int) Math.ceil(Math.log(1.0 / delta));
+        int minWidth = (int) Math.ceil(Math.E / epsilon);
+
+        switch (layout) {
+            case STANDARD -> {
+                this.width = minWidth;
+                this.blockSize = 0;
+                this.slotsPerRow = 0;
+                this.mask = 0;
+            }
+            case POWER_OF_TWO -> {
+                this.width = nextPowerOfTwo(minWidth);
+                this.blockSize = 0;
+                this.slotsPerRow = 0;
+                this.mask = width - 1;
+            }
+            default -> {
+                this.slotsPerRow = Math.max(Layout.MIN_SLOTS_PER_ROW, Layout.BLOCK_SIZE / depth);
+                this.blockSize = Math.max(Layout.BLOCK_SIZE, depth * slotsPerRow);
+                int numBlocks = nextPowerOfTwo((minWidth + slotsPerRow - 1) / slotsPerRow);
+                this.width = numBlocks * slotsPerRow;
+                this.mask = numBlocks - 1;
+            }
+        }
+
+        int size = layout == Layout.BLOCKED ? (mask + 1) * blockSize : depth * width;
+        this.table = CounterArray.create(counterWidth, size, overflowPolicy == OverflowPolicy.SATURATE);
+        this.hasher = hasher;
+        this.serializer = serializer;
+        this.hashCache = hashCache;
+    }
+
+    public CountMinSketch(double epsilon, double delta, CounterWidth counterWidth, OverflowPolicy overflowPolicy,
+                          Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, Layout.STANDARD, counterWidth, overflowPolicy, hasher, serializer);
+    }
+
+    public CountMinSketch(double epsilon, double delta, Layout layout, Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, layout, CounterWidth.BITS_64, OverflowPolicy.PROMOTE, hasher, serializer);
+    }
+
+    public CountMinSketch(double epsilon, double delta, Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, Layout.STANDARD, hasher, serializer);
+    }
+
+    /**
+     * Creates a {@link Layout#STANDARD} sketch with {@code ceil(ln(1 / delta))} rows, each as wide as
+     * {@code budgetBytes} allows, which gives the smallest epsilon whose {@link #memoryFootprintBytes()}
+     * fits. Counters narrower than 64 bits saturate, since promoting them would outgrow the budget.
+     *
+     * @throws IllegalArgumentException if the budget does not even fit rows of three counters
+     */
+    public static <T> CountMinSketch<T> withMemoryBudget(long budgetBytes, double delta, CounterWidth counterWidth,
+                                                         Hasher hasher, Serializer<T> serializer) {
+        if (delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Delta must be in (0, 1)");
+        }
+        int depth = (int) Math.ceil(Math.log(1.0 / delta));
+        // Epsilon must stay below 1, so a row needs at least ceil(e) = 3 counters
+        long width = MemoryFootprint.largestFitting(3, (Integer.MAX_VALUE - 8) / depth,
+                w -> footprint(depth, w, counterWidth) <= budgetBytes, budgetBytes);
+        double epsilon = Math.E / width;
+        while (Math.ceil(Math.E / epsilon) > width) {
+            epsilon = Math.nextUp(epsilon);
+        }
+        OverflowPolicy overflowPolicy = counterWidth == CounterWidth.BITS_64 ? OverflowPolicy.PROMOTE : OverflowPolicy.SATURATE;
+        return new CountMinSketch<>(epsilon, delta, Layout.STANDARD, counterWidth, overflowPolicy, hasher, serializer);
+    }
+
+    public static <T> CountMinSketch<T> withMemoryBudget(long budgetBytes, double delta, Hasher hasher,
+                                                         Serializer<T> serializer) {
+        return withMemoryBudget(budgetBytes, delta, CounterWidth.BITS_64, hasher, serializer);
+    }
+
+    static long footprint(int depth, long width, CounterWidth counterWidth) {
+        return MemoryFootprint.shallowSize(CountMinSketch.class) + CounterArray.footprint(counterWidth, depth * width);
+    }
+
+    private CountMinSketch(CountMinSketch<T> other) {
+        this.epsilon = other.epsilon;
+        this.delta = other.delta;
+        this.layout = other.layout;
+        this.depth = other.depth;
+        this.width = other.width;
+        this.mask = other.mask;
+        this.blockSize = other.blockSize;
+        this.slotsPerRow = other.slotsPerRow;
+        this.table = other.table.copy();
+        this.hasher = other.hasher;
+        this.serializer = other.serializer;
+        this.hashCache = other.hashCache;
+        this.totalCount = other.totalCount;
+    }
+
+    private static int nextPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private int index(int row, long h1, long h2) {
+        long combined = h1 + row * h2;
+        return switch (layout) {
+            case STANDARD -> row * width + Math.floorMod(combined, width);
+            case POWER_OF_TWO -> row * width + ((int) combined & mask);
+            case BLOCKED -> {
+                // Low bits of h1 pick the block, the high half of the row hash picks the slot
+                // within the row's slice of that block (multiply-shift, no division).
+                int block = (int) h1 & mask;
+                int slot = (int) (((combined >>> 32) * slotsPerRow) >>> 32);
+                yield block * blockSize + row * slotsPerRow + slot;
+            }
+        };
+    }
+
+    public void add(T item, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            add(cached.h1, cached.h2, value);
+            return;
+        }
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        add(h1, h2, value);
+    }
+
+    /**
+     * Writes the hash pair of {@code item} to {@code hashes[index]} and {@code hashes[index + 1]}, taking it
+     * from the hash cache if there is one. Used by the batch path; single items hash into locals.
+     */
+    final void hash(T item, long[] hashes, int index) {
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            hashes[index] = cached.h1;
+            hashes[index + 1] = cached.h2;
+        } else {
+            byte[] data = serializer.serialize(item);
+            hashes[index] = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+            hashes[index + 1] = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        }
+    }
+
+    /**
+     * Counts each of {@code items[0, count)} once, hashing all of them before touching the table.
+     * {@code hashes} needs two slots per item.
+     */
+    @SuppressWarnings("unchecked")
+    void addBatch(Object[] items, int count, long[] hashes) {
+        for (int i = 0; i < count; i++) {
+            hash((T) items[i], hashes, 2 * i);
+        }
+        for (int i = 0; i < count; i++) {
+            add(hashes[2 * i], hashes[2 * i + 1], 1);
+        }
+    }
+
+    /**
+     * Adds {@code value} for the item whose serialized form is {@code data[offset, offset + length)},
+     * without copying it.
+     */
+    void addBytes(byte[] data, int offset, int length, long value) {
+        add(hasher.hash64(data, offset, length, HashSeed.PRIMARY_HASH_SEED),
+                hasher.hash64(data, offset, length, HashSeed.SECONDARY_HASH_SEED), value);
+    }
+
+    void add(long h1, long h2, long value) {
+        for (int i = 0; i < depth; i++) {
+            int idx = index(i, h1, h2);
+            while (!table.add(idx, value)) {
+                table = table.widen();
+            }
+        }
+        totalCount += value;
+    }
+
+    /**
+     * Adds {@code value} for {@code item} and returns the item's estimated count after the update,
+     * hashing the item and walking the rows only once.
+     */
+    public long addAndEstimate(T item, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            return addAndEstimate(item, cached.h1, cached.h2, value);
+        }
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        return addAndEstimate(item, h1, h2, value);
+    }
+
+    /**
+     * Called by {@link #addAndEstimate(Object, long)} once the item is hashed, for subclasses that track
+     * items alongside the counters.
+     */
+    long addAndEstimate(T item, long h1, long h2, long value) {
+        return addAndEstimate(h1, h2, value);
+    }
+
+    long addAndEstimate(long h1, long h2, long value) {
+        // Each row maps the item to a different counter, so the minimum of the freshly updated
+        // counters is exactly what estimateCount would return afterwards.
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int idx = index(i, h1, h2);
+            while (!table.add(idx, value)) {
+                table = table.widen();
+            }
+            min = Math.min(min, table.get(idx));
+        }
+        totalCount += value;
+        return min;
+    }
+
+    public long estimateCount(T item) {
+        if (hashCache != null) {
+            HashCache.Entry cached = hashCache.get(item);
+            return estimateCount(cached.h1, cached.h2);
+        }
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        return estimateCount(h1, h2);
+    }
+
+    long estimateCount(long h1, long h2) {
+        long min = Long.MAX_VALUE;
+
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, table.get(index(i, h1, h2)));
+        }
+
+        return min;
+    }
+
+    /**
+     * Adds all counts of {@code other} to this sketch, as if every item added to {@code other} had been
+     * added here. Both sketches must have been built with the same parameters and hasher.
+     */
+    public void merge(CountMinSketch<T> other) {
+        checkCompatible(other);
+        while (table.width().ordinal() < other.table.width().ordinal()) {
+            table = table.widen();
+        }
+        while (!table.addAll(other.table)) {
+            table = table.widen();
+        }
+        totalCount += other.totalCount;
+    }
+
+    /**
+     * Removes the counts of {@code other} from this sketch. {@code other} must describe a subset of the
+     * stream summarized by this sketch, for example an earlier snapshot of it.
+     */
+    public void subtract(CountMinSketch<T> other) {
+        checkCompatible(other);
+        if (other.totalCount > totalCount) {
+            throw new IllegalArgumentException("Cannot subtract a sketch with a larger total count");
+        }
+        table.subtractAll(other.table);
+        totalCount -= other.totalCount;
+    }
+
+    private void checkCompatible(CountMinSketch<T> other) {
+        if (other.depth != depth || other.width != width || other.layout != layout
+                || other.table.length() != table.length()) {
+            throw new IllegalArgumentException("Count-Min Sketches have different dimensions");
+        }
+        if (other.hasher.getClass() != hasher.getClass()) {
+            throw new IllegalArgumentException("Count-Min Sketches use different hashers");
+        }
+    }
+
+    /**
+     * Merges all sketches into a new one using a parallel tree reduction on the common fork-join pool.
+     * The input sketches are left unchanged. The result is always a plain {@code CountMinSketch}: for
+     * {@link CountAllTopK} inputs only the counters are merged, not the tracked items; use
+     * {@link CountAllTopK#merge} to combine their heaps as well.
+     */
+    public static <T> CountMinSketch<T> mergeAll(List<? extends CountMinSketch<T>> sketches) {
+        if (sketches.isEmpty()) {
+            throw new IllegalArgumentException("No sketches to merge");
+        }
+        return ForkJoinPool.commonPool().invoke(new MergeTask<>(sketches, 0, sketches.size(), true));
+    }
+
+    @SuppressWarnings("serial") // Never serialized
+    private static final class MergeTask<T> extends RecursiveTask<CountMinSketch<T>> {
+        private final List<? extends CountMinSketch<T>> sketches;
+        private final int from;
+        private final int to;
+        private final boolean copy; // the result is merged into, so a leaf must not return an input sketch
+
+        MergeTask(List<? extends CountMinSketch<T>> sketches, int from, int to, boolean copy) {
+            this.sketches = sketches;
+            this.from = from;
+            this.to = to;
+            this.copy = copy;
+        }
+
+        @Override
+        protected CountMinSketch<T> compute() {
+            if (to - from == 1) {
+                return copy ? new CountMinSketch<>(sketches.get(from)) : sketches.get(from);
+            }
+            // Only the leftmost leaf of each subtree becomes an accumulator; right results are only read
+            int mid = (from + to) >>> 1;
+            MergeTask<T> left = new MergeTask<>(sketches, from, mid, true);
+            left.fork();
+            CountMinSketch<T> right = new MergeTask<T>(sketches, mid, to, false).compute();
+            CountMinSketch<T> merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Resets all counters to zero without reallocating the table.
+     */
+    public void clear() {
+        table.clear();
+        totalCount = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getErrorBound() {
+        return Math.round(epsilon * totalCount);
+    }
+
+    /**
+     * Current counter width. With {@link OverflowPolicy#PROMOTE} this grows as counts grow.
+     */
+    public CounterWidth getCounterWidth() {
+        return table.width();
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Number of positions each row can map an item to. For {@link Layout#BLOCKED} this is
+     * {@code blocks * slotsPerRow}.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * The sketch and its counter table; with {@link OverflowPolicy#PROMOTE} this grows when the table is
+     * widened.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + table.memoryFootprintBytes();
+    }
+
+    /**
+     * Reports the table load. {@code meanCounterValue}, the total count spread over one row, is the
+     * expected overestimate of a point query; once it nears the counts of interest the sketch needs
+     * more width.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("depth", depth);
+        metrics.put("width", width);
+        metrics.put("totalCount", totalCount);
+        metrics.put("meanCounterValue", (double) totalCount / width);
+        metrics.put("errorBound", getErrorBound());
+        metrics.put("counterMaxValue", table.width().maxValue);
+        return metrics;
+    }
+
+}
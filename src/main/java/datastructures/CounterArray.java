@@ -0,0 +1,301 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size array of unsigned counters backed by the narrowest primitive array that fits the
+ * requested counter width.
+ */
+abstract class CounterArray {
+
+    final boolean saturating;
+
+    CounterArray(boolean saturating) {
+        this.saturating = saturating;
+    }
+
+    static CounterArray create(CountMinSketch.CounterWidth width, int length, boolean saturating) {
+        return switch (width) {
+            case BITS_8 -> new ByteCounters(length, saturating);
+            case BITS_16 -> new ShortCounters(length, saturating);
+            case BITS_32 -> new IntCounters(length, saturating);
+            case BITS_64 -> new LongCounters(length);
+        };
+    }
+
+    /**
+     * Heap size of an array of {@code length} counters of the given width, including its backing array.
+     */
+    static long footprint(CountMinSketch.CounterWidth width, long length) {
+        return switch (width) {
+            case BITS_8 -> MemoryFootprint.shallowSize(ByteCounters.class) + MemoryFootprint.array(length, Byte.BYTES);
+            case BITS_16 -> MemoryFootprint.shallowSize(ShortCounters.class) + MemoryFootprint.array(length, Short.BYTES);
+            case BITS_32 -> MemoryFootprint.shallowSize(IntCounters.class) + MemoryFootprint.array(length, Integer.BYTES);
+            case BITS_64 -> MemoryFootprint.shallowSize(LongCounters.class) + MemoryFootprint.array(length, Long.BYTES);
+        };
+    }
+
+    long memoryFootprintBytes() {
+        return footprint(width(), length());
+    }
+
+    abstract CountMinSketch.CounterWidth width();
+
+    abstract int length();
+
+    abstract long get(int index);
+
+    abstract void set(int index, long value);
+
+    /**
+     * Adds {@code value} to the counter at {@code index}. A saturating array clamps the counter to
+     * its maximum; otherwise the counter is left untouched and {@code false} is returned when the
+     * result does not fit, so the caller can {@link #widen()} and retry.
+     */
+    boolean add(int index, long value) {
+        long max = width().maxValue;
+        long current = get(index);
+        if (value > max - current) {
+            if (!saturating) {
+                return false;
+            }
+            set(index, max);
+        } else {
+            set(index, current + value);
+        }
+        return true;
+    }
+
+    /**
+     * Adds {@code other} element-wise. Both arrays must have the same length and {@code other} must not
+     * be wider than this array. Returns {@code false} without modifying anything if a non-saturating
+     * counter would overflow.
+     */
+    boolean addAll(CounterArray other) {
+        long max = width().maxValue;
+        if (!saturating) {
+            for (int i = 0; i < length(); i++) {
+                if (other.get(i) > max - get(i)) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < length(); i++) {
+            add(i, other.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Subtracts {@code other} element-wise. Throws if any counter of {@code other} exceeds the
+     * corresponding counter of this array, in which case nothing is modified.
+     */
+    void subtractAll(CounterArray other) {
+        for (int i = 0; i < length(); i++) {
+            if (other.get(i) > get(i)) {
+                throw new IllegalArgumentException("Subtracted sketch has a larger counter at index " + i);
+            }
+        }
+        for (int i = 0; i < length(); i++) {
+            set(i, get(i) - other.get(i));
+        }
+    }
+
+    abstract void clear();
+
+    CounterArray copy() {
+        CounterArray copy = create(width(), length(), saturating);
+        copy.addAll(this);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of this array using the next wider counter type.
+     */
+    CounterArray widen() {
+        CountMinSketch.CounterWidth next = switch (width()) {
+            case BITS_8 -> CountMinSketch.CounterWidth.BITS_16;
+            case BITS_16 -> CountMinSketch.CounterWidth.BITS_32;
+            case BITS_32, BITS_64 -> CountMinSketch.CounterWidth.BITS_64;
+        };
+        CounterArray wider = create(next, length(), saturating);
+        for (int i = 0; i < length(); i++) {
+            wider.set(i, get(i));
+        }
+        return wider;
+    }
+
+    static final class ByteCounters extends CounterArray {
+        private final byte[] counters;
+
+        ByteCounters(int length, boolean saturating) {
+            super(saturating);
+            this.counters = new byte[length];
+        }
+
+        @Override
+        CountMinSketch.CounterWidth width() {
+            return CountMinSketch.CounterWidth.BITS_8;
+        }
+
+        @Override
+        int length() {
+            return counters.length;
+        }
+
+        @Override
+        long get(int index) {
+            return counters[index] & 0xFFL;
+        }
+
+        @Override
+        void set(int index, long value) {
+            counters[index] = (byte) value;
+        }
+
+        @Override
+        void clear() {
+            Arrays.fill(counters, (byte) 0);
+        }
+    }
+
+    static final class ShortCounters extends CounterArray {
+        private final short[] counters;
+
+        ShortCounters(int length, boolean saturating) {
+            super(saturating);
+            this.counters = new short[length];
+        }
+
+        @Override
+        CountMinSketch.CounterWidth width() {
+            return CountMinSketch.CounterWidth.BITS_16;
+        }
+
+        @Override
+        int length() {
+            return counters.length;
+        }
+
+        @Override
+        long get(int index) {
+            return counters[index] & 0xFFFFL;
+        }
+
+        @Override
+        void set(int index, long value) {
+            counters[index] = (short) value;
+        }
+
+        @Override
+        void clear() {
+            Arrays.fill(counters, (short) 0);
+        }
+    }
+
+    static final class IntCounters extends CounterArray {
+        private final int[] counters;
+
+        IntCounters(int length, boolean saturating) {
+            super(saturating);
+            this.counters = new int[length];
+        }
+
+        @Override
+        CountMinSketch.CounterWidth width() {
+            return CountMinSketch.CounterWidth.BITS_32;
+        }
+
+        @Override
+        int length() {
+            return counters.length;
+        }
+
+        @Override
+        long get(int index) {
+            return counters[index] & 0xFFFFFFFFL;
+        }
+
+        @Override
+        void set(int index, long value) {
+            counters[index] = (int) value;
+        }
+
+        @Override
+        void clear() {
+            Arrays.fill(counters, 0);
+        }
+    }
+
+    static final class LongCounters extends CounterArray {
+        private final long[] counters;
+
+        LongCounters(int length) {
+            super(false);
+            this.counters = new long[length];
+        }
+
+        @Override
+        CountMinSketch.CounterWidth width() {
+            return CountMinSketch.CounterWidth.BITS_64;
+        }
+
+        @Override
+        int length() {
+            return counters.length;
+        }
+
+        @Override
+        long get(int index) {
+            return counters[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            counters[index] = value;
+        }
+
+        @Override
+        void clear() {
+            Arrays.fill(counters, 0L);
+        }
+
+        @Override
+        boolean add(int index, long value) {
+            counters[index] += value;
+            return true;
+        }
+
+        // Plain loops over two long[] are auto-vectorized by C2, unlike the generic get/set path.
+        @Override
+        boolean addAll(CounterArray other) {
+            if (!(other instanceof LongCounters o)) {
+                return super.addAll(other);
+            }
+            long[] src = o.counters;
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] += src[i];
+            }
+            return true;
+        }
+
+        @Override
+        void subtractAll(CounterArray other) {
+            if (!(other instanceof LongCounters o)) {
+                super.subtractAll(other);
+                return;
+            }
+            long[] src = o.counters;
+            boolean underflow = false;
+            for (int i = 0; i < counters.length; i++) {
+                underflow |= src[i] > counters[i];
+            }
+            if (underflow) {
+                throw new IllegalArgumentException("Subtracted sketch has a larger counter than this sketch");
+            }
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] -= src[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the hash pairs of recently seen items, for skewed streams in which a few thousand hot
+ * items are serialized and hashed over and over. A {@link BloomFilter}, {@link CountMinSketch} or
+ * {@link CountAllTopK} built on a cache takes its hasher and serializer from it and looks every item up
+ * first; a hit skips serialization and hashing. All three hash with the {@link HashSeed} seeds, so one
+ * cache can serve several structures at once.
+ * <p>
+ * The cache is set-associative: an item can only be held in one set of {@value #WAYS} slots, picked by its
+ * {@code hashCode()} or, with {@link Keying#IDENTITY}, its identity hash code. A miss fills a free slot of
+ * the set, or evicts by CLOCK: the set's hand skips entries that were hit since it last passed them,
+ * clearing their reference bit, and replaces the first one without.
+ * <p>
+ * Lookups take no locks, so the cache can be shared between threads. Concurrent misses on the same set may
+ * overwrite each other's entries, which only costs hit rate. The cache holds strong references to up to
+ * {@code capacity} items; with {@link Keying#EQUALS} they must not be mutated while cached.
+ *
+ * @param <T> item type
+ */
+public final class HashCache<T> implements SketchMetrics {
+
+    /**
+     * How cached items are matched.
+     */
+    public enum Keying {
+        /** By {@code equals}, so equal items built independently share an entry. */
+        EQUALS,
+        /** By reference, for interned or long-lived items with expensive {@code equals}. */
+        IDENTITY
+    }
+
+    static final class Entry {
+        final Object key;
+        final int keyHash;
+        final long h1;
+        final long h2;
+        boolean referenced; // Set on hits, cleared by the hand; racy updates only blur the recency signal
+
+        Entry(Object key, int keyHash, long h1, long h2) {
+            this.key = key;
+            this.keyHash = keyHash;
+            this.h1 = h1;
+            this.h2 = h2;
+        }
+    }
+
+    static final int WAYS = 8;
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(Entry[].class);
+
+    private final Entry[] entries; // sets of WAYS slots; a set fills from its first slot and never empties
+    private final int[] hands;
+    private final int setMask;
+    private final Keying keying;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity number of items to cache, rounded up to a power of two of at least {@value #WAYS}
+     */
+    public HashCache(int capacity, Keying keying, Hasher hasher, Serializer<T> serializer) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int sets = (capacity + WAYS - 1) / WAYS;
+        sets = sets == 1 ? 1 : Integer.highestOneBit(sets - 1) << 1;
+        this.entries = new Entry[sets * WAYS];
+        this.hands = new int[sets];
+        this.setMask = sets - 1;
+        this.keying = keying;
+        this.hasher = hasher;
+        this.serializer = serializer;
+    }
+
+    public HashCache(int capacity, Hasher hasher, Serializer<T> serializer) {
+        this(capacity, Keying.EQUALS, hasher, serializer);
+    }
+
+    Hasher hasher() {
+        return hasher;
+    }
+
+    Serializer<T> serializer() {
+        return serializer;
+    }
+
+    /**
+     * Returns the cached entry for {@code item}, or serializes and hashes the item and caches the result.
+     * {@code h1} and {@code h2} are the hashes of the serialized item with the primary and secondary seed.
+     */
+    Entry get(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        int keyHash = keying == Keying.IDENTITY ? System.identityHashCode(item) : item.hashCode();
+        int base = (spread(keyHash) & setMask) * WAYS;
+        int free = -1;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry entry = (Entry) ENTRIES.getAcquire(entries, i);
+            if (entry == null) {
+                free = i;
+                break;
+            }
+            if (entry.keyHash == keyHash && (keying == Keying.IDENTITY ? entry.key == item : item.equals(entry.key))) {
+                if (!entry.referenced) {
+                    entry.referenced = true; // Only written when it changes, to keep hot entries' lines shared
+                }
+                hits.increment();
+                return entry;
+            }
+        }
+
+        misses.increment();
+        byte[] data = serializer.serialize(item);
+        Entry entry = new Entry(item, keyHash, hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED),
+                hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED));
+        ENTRIES.setRelease(entries, free >= 0 ? free : victim(base), entry);
+        return entry;
+    }
+
+    /**
+     * Advances the set's CLOCK hand past referenced entries, clearing their bit, and returns the slot of
+     * the first unreferenced one. Two sweeps are enough unless other threads keep re-referencing entries,
+     * in which case the entry under the hand is taken.
+     */
+    private int victim(int base) {
+        int set = base / WAYS;
+        int hand = hands[set];
+        for (int step = 0; step < 2 * WAYS; step++) {
+            Entry entry = (Entry) ENTRIES.getAcquire(entries, base + hand);
+            if (!entry.referenced) {
+                break;
+            }
+            entry.referenced = false;
+            hand = (hand + 1) & (WAYS - 1);
+        }
+        hands[set] = (hand + 1) & (WAYS - 1);
+        evictions.increment();
+        return base + hand;
+    }
+
+    private static int spread(int hash) {
+        // hashCode()s such as Integer's are sequential; mix them so consecutive keys spread over sets
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Hits over lookups so far, or 0 before the first lookup.
+     */
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters, e.g. after a warm-up.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    int size() {
+        int size = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (ENTRIES.getAcquire(entries, i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The slot array and the cached entries; the cached items themselves are not counted.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(entries) + MemoryFootprint.of(hands)
+                + 3 * MemoryFootprint.shallowSize(LongAdder.class)
+                + (long) size() * MemoryFootprint.shallowSize(Entry.class);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("capacity", entries.length);
+        metrics.put("size", size());
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        metrics.put("evictions", evictions.sum());
+        return metrics;
+    }
+}
@@ -1,3 +1,5 @@
+package datastructures;
+
 public final class HashSeed {
 
     // Constants for double hashing
@@ -0,0 +1,447 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import serializer.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class HeavyKeeperTopK<T> implements SketchMetrics {
+
+    // Decay probabilities below this are indistinguishable from zero for SplittableRandom.nextDouble()
+    private static final double NEGLIGIBLE_DECAY = 0x1p-53;
+    private static final int MAX_DECAY_TABLE_SIZE = 1 << 16;
+
+    private final int d; // number of hash functions
+    private final int w; // width of each table
+    private final double b; // base for probabilistic decrement
+    private final long[] fingerprints; // d rows of w buckets, row-major
+    private final int[] counts;
+    private final double[] decayTable; // decayTable[c] = b^-c
+    private final boolean decayTableComplete;
+    private final SplittableRandom random;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private final long seed;
+    private final long[] hashes = new long[2]; // scratch for the 128-bit item hash
+    private final IndexedMinHeap minHeap; // keyed by fingerprint
+    private final long[] rowHashes; // second half of the item hash per heap slot, for re-estimation
+    private final Object[] items; // tracked flow per heap slot; null in fingerprint-only mode
+    private final KeyDictionary<T> dictionary;
+    private final int k;
+
+    // Event counters for metrics()
+    private long inserts = 0;
+    private long decays = 0;
+    private long takeovers = 0;
+    private long evictions = 0;
+
+    /**
+     * @param seed seeds both the item hash and the random decay decisions, so runs with the same seed
+     *             and input are reproducible
+     */
+    public HeavyKeeperTopK(int d, int w, int k, double b, long seed, Hasher hasher, Serializer<T> serializer) {
+        this(d, w, k, b, seed, hasher, serializer, null);
+    }
+
+    /**
+     * Fingerprint-only tracker: flows are identified by their 64-bit fingerprint and handed to
+     * {@code dictionary} instead of being retained.
+     */
+    public HeavyKeeperTopK(int d, int w, int k, double b, long seed, Hasher hasher, Serializer<T> serializer,
+                           KeyDictionary<T> dictionary) {
+        if (b <= 1) {
+            throw new IllegalArgumentException("b must be greater than 1");
+        }
+        this.d = d;
+        this.w = w;
+        this.k = k;
+        this.b = b;
+        this.hasher = hasher;
+        this.serializer = serializer;
+        this.fingerprints = new long[d * w];
+        this.counts = new int[d * w];
+        this.seed = seed;
+        this.minHeap = new IndexedMinHeap(k);
+        this.rowHashes = new long[k];
+        this.items = dictionary == null ? new Object[k] : null;
+        this.dictionary = dictionary;
+        this.random = new SplittableRandom(seed);
+
+        int size = decayTableSize(b);
+        this.decayTable = new double[size];
+        for (int c = 0; c < size; c++) {
+            decayTable[c] = Math.pow(b, -c);
+        }
+        this.decayTableComplete = size < MAX_DECAY_TABLE_SIZE;
+    }
+
+    public HeavyKeeperTopK(int d, int w, int k, double b, Hasher hasher, Serializer<T> serializer) {
+        this(d, w, k, b, HashSeed.PRIMARY_HASH_SEED, hasher, serializer);
+    }
+
+    /**
+     * Creates a tracker for the top {@code k} with two rows and {@code b = 1.08}, the settings of the
+     * HeavyKeeper paper, and rows as wide as {@code budgetBytes} allows for the
+     * {@link #memoryFootprintBytes()}. Wider rows mean fewer flows competing for each bucket.
+     *
+     * @throws IllegalArgumentException if the budget does not even fit the heap and rows of one bucket
+     */
+    public static <T> HeavyKeeperTopK<T> withMemoryBudget(long budgetBytes, int k, Hasher hasher,
+                                                          Serializer<T> serializer) {
+        int d = 2;
+        double b = 1.08;
+        int w = (int) MemoryFootprint.largestFitting(1, (Integer.MAX_VALUE - 8) / d,
+                width -> footprint(d, width, k, b) <= budgetBytes, budgetBytes);
+        return new HeavyKeeperTopK<>(d, w, k, b, hasher, serializer);
+    }
+
+    static long footprint(int d, long w, int k, double b) {
+        return MemoryFootprint.shallowSize(HeavyKeeperTopK.class)
+                + MemoryFootprint.array(d * w, Long.BYTES) + MemoryFootprint.array(d * w, Integer.BYTES)
+                + MemoryFootprint.array(decayTableSize(b), Double.BYTES)
+                + MemoryFootprint.splittableRandom() + MemoryFootprint.array(2, Long.BYTES)
+                + IndexedMinHeap.footprint(k) + MemoryFootprint.array(k, Long.BYTES)
+                + MemoryFootprint.array(k, MemoryFootprint.REFERENCE);
+    }
+
+    private static int decayTableSize(double b) {
+        int size = 0;
+        while (size < MAX_DECAY_TABLE_SIZE && Math.pow(b, -size) >= NEGLIGIBLE_DECAY) {
+            size++;
+        }
+        return size;
+    }
+
+    private double decayProbability(int count) {
+        if (count < decayTable.length) {
+            return decayTable[count];
+        }
+        // Only reachable with a base so close to 1 that the table was capped
+        return decayTableComplete ? 0.0 : Math.pow(b, -count);
+    }
+
+    public void insert(T flow) {
+        // One 128-bit hash gives the fingerprint and, by double hashing, the bucket in every row
+        hasher.hash128(serializer.serialize(flow), seed, hashes);
+        insert(flow, hashes[0], hashes[1]);
+    }
+
+    /**
+     * Inserts {@code flows[0, count)}, hashing all of them before touching the buckets. {@code hashes}
+     * needs two slots per flow.
+     */
+    @SuppressWarnings("unchecked")
+    void insertBatch(Object[] flows, int count, long[] hashes) {
+        for (int i = 0; i < count; i++) {
+            hasher.hash128(serializer.serialize((T) flows[i]), seed, this.hashes);
+            hashes[2 * i] = this.hashes[0];
+            hashes[2 * i + 1] = this.hashes[1];
+        }
+        for (int i = 0; i < count; i++) {
+            insert((T) flows[i], hashes[2 * i], hashes[2 * i + 1]);
+        }
+    }
+
+    void insert(T flow, long fp, long h2) {
+        int slot = insertHash(fp, h2);
+        if (slot != IndexedMinHeap.ABSENT) {
+            track(slot, fp, h2, flow);
+        }
+    }
+
+    /**
+     * Decodes a key from a byte range, e.g. a field of a line read from a file.
+     */
+    @FunctionalInterface
+    interface KeyDecoder<T> {
+        T decode(byte[] data, int offset, int length);
+    }
+
+    /**
+     * Inserts the flow whose serialized form is {@code data[offset, offset + length)}. The range is hashed
+     * in place, and decoded into a flow only if it enters the top-k.
+     */
+    void insert(byte[] data, int offset, int length, KeyDecoder<T> decoder) {
+        hasher.hash128(data, offset, length, seed, hashes);
+        long fp = hashes[0];
+        long h2 = hashes[1];
+        int slot = insertHash(fp, h2);
+        if (slot != IndexedMinHeap.ABSENT) {
+            track(slot, fp, h2, decoder.decode(data, offset, length));
+        }
+    }
+
+    /**
+     * Updates the buckets and the heap, and returns the heap slot the flow has just entered, or
+     * {@link IndexedMinHeap#ABSENT} if it was already tracked or did not make it.
+     */
+    private int insertHash(long fp, long h2) {
+        int slot = minHeap.slotOf(fp);
+        boolean inHeap = slot != IndexedMinHeap.ABSENT;
+        long nmin = minHeap.size() == 0 ? 0 : minHeap.minCount(); // O(1): root of the heap
+        int maxv = 0;
+        inserts++;
+
+        for (int j = 0; j < d; j++) {
+            int idx = index(j, fp, h2);
+
+            if (fingerprints[idx] == fp) {
+                if (inHeap || counts[idx] <= nmin) { // Selective Increment
+                    maxv = Math.max(maxv, ++counts[idx]);
+                }
+            } else if (random.nextDouble() < decayProbability(counts[idx])) {
+                decays++;
+                if (--counts[idx] <= 0) {
+                    takeovers++;
+                    fingerprints[idx] = fp;
+                    counts[idx] = 1;
+                    maxv = Math.max(maxv, 1);
+                }
+            }
+        }
+
+        if (inHeap) {
+            if (maxv > minHeap.countAt(slot)) {
+                minHeap.update(slot, maxv);
+            }
+        } else if (!minHeap.isFull()) {
+            return minHeap.offer(fp, maxv);
+        } else if (maxv - nmin == 1) { // Fingerprint Collisions Detection
+            evictions++;
+            TopKEvictionEvent.emit(HeavyKeeperTopK.class, nmin, maxv);
+            untrack(minHeap.minSlot());
+            return minHeap.replaceMin(fp, maxv);
+        }
+        return IndexedMinHeap.ABSENT;
+    }
+
+    private void track(int slot, long fp, long h2, T flow) {
+        rowHashes[slot] = h2;
+        if (items != null) {
+            items[slot] = flow;
+        } else {
+            dictionary.record(fp, flow);
+        }
+    }
+
+    private void untrack(int slot) {
+        if (items != null) {
+            items[slot] = null;
+        } else {
+            dictionary.release(minHeap.keyAt(slot));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T flowAt(int slot) {
+        return items != null ? (T) items[slot] : dictionary.resolve(minHeap.keyAt(slot));
+    }
+
+    private int index(int row, long fp, long h2) {
+        long combined = h2 + row * fp;
+        // Multiply-shift maps the high 32 bits onto [0, w) without a division
+        return row * w + (int) (((combined >>> 32) * w) >>> 32);
+    }
+
+    /**
+     * Current sketch estimate for {@code flow}: the largest count among the buckets holding its
+     * fingerprint, or 0 if it has been decayed out of every row.
+     */
+    int query(T flow) {
+        hasher.hash128(serializer.serialize(flow), seed, hashes);
+        return query(hashes[0], hashes[1]);
+    }
+
+    private int query(long fp, long h2) {
+        int max = 0;
+        for (int j = 0; j < d; j++) {
+            int idx = index(j, fp, h2);
+            if (fingerprints[idx] == fp) {
+                max = Math.max(max, counts[idx]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Halves every bucket and heap count in place, so that older traffic weighs half as much as newer
+     * traffic. Flows whose count reaches zero leave the top-k. Memory use does not change.
+     */
+    public void age() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] >>>= 1;
+        }
+        minHeap.halveCounts(this::untrack);
+    }
+
+    /**
+     * Combines a tracker built on another part of the stream into this one, e.g. to aggregate the
+     * heavy hitters of several ingest nodes. Both trackers must share {@code d}, {@code w}, {@code b},
+     * the seed and the hasher, so that the same flow maps to the same buckets.
+     * <p>
+     * Buckets holding the same fingerprint add up. Otherwise the larger count survives, decayed by the
+     * smaller one, just as if the two flows had competed for the bucket. The heaps are combined by
+     * re-estimating every tracked flow against the merged buckets, then keeping the {@code k} largest.
+     */
+    public void merge(HeavyKeeperTopK<T> other) {
+        if (other.d != d || other.w != w || other.b != b || other.seed != seed
+                || other.hasher.getClass() != hasher.getClass()) {
+            throw new IllegalArgumentException("HeavyKeeper trackers have different parameters or seeds");
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            if (fingerprints[i] == other.fingerprints[i]) {
+                counts[i] += other.counts[i];
+            } else if (other.counts[i] > counts[i]) {
+                fingerprints[i] = other.fingerprints[i];
+                counts[i] = other.counts[i] - counts[i];
+            } else {
+                counts[i] -= other.counts[i];
+            }
+        }
+
+        // Heap counts are lower bounds per partition, so their sum is too
+        List<Candidate<T>> candidates = new ArrayList<>(minHeap.size() + other.minHeap.size());
+        LongIntHashMap byFingerprint = new LongIntHashMap(minHeap.size() + other.minHeap.size());
+        collectCandidates(this, true, candidates, byFingerprint);
+        collectCandidates(other, false, candidates, byFingerprint);
+        for (Candidate<T> candidate : candidates) {
+            candidate.count = Math.max(query(candidate.fp, candidate.h2), candidate.count);
+        }
+        candidates.sort((x, y) -> Long.compare(y.count, x.count));
+
+        minHeap.clear();
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate<T> candidate = candidates.get(i);
+            if (i < k) {
+                int slot = minHeap.offer(candidate.fp, candidate.count);
+                rowHashes[slot] = candidate.h2;
+                if (items != null) {
+                    items[slot] = candidate.flow;
+                } else if (!candidate.local && candidate.flow != null) {
+                    dictionary.record(candidate.fp, candidate.flow);
+                }
+            } else if (dictionary != null && candidate.local) {
+                dictionary.release(candidate.fp);
+            }
+        }
+    }
+
+    private static final class Candidate<T> {
+        final long fp;
+        final long h2;
+        final T flow;
+        final boolean local;
+        long count;
+
+        Candidate(long fp, long h2, T flow, boolean local, long count) {
+            this.fp = fp;
+            this.h2 = h2;
+            this.flow = flow;
+            this.local = local;
+            this.count = count;
+        }
+    }
+
+    private static <T> void collectCandidates(HeavyKeeperTopK<T> source, boolean local, List<Candidate<T>> candidates,
+                                              LongIntHashMap byFingerprint) {
+        source.minHeap.sort();
+        for (int rank = 0; rank < source.minHeap.size(); rank++) {
+            int slot = source.minHeap.slotAtRank(rank);
+            long fp = source.minHeap.keyAt(slot);
+            int existing = byFingerprint.get(fp);
+            if (existing != LongIntHashMap.ABSENT) {
+                candidates.get(existing).count += source.minHeap.countAt(slot);
+            } else {
+                byFingerprint.put(fp, candidates.size());
+                T flow = local && source.items == null ? null : source.flowAt(slot);
+                candidates.add(new Candidate<>(fp, source.rowHashes[slot], flow, local, source.minHeap.countAt(slot)));
+            }
+        }
+    }
+
+    /**
+     * The buckets, the decay table and the heap with its per-slot arrays; the tracked flows themselves
+     * are not counted.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(fingerprints) + MemoryFootprint.of(counts)
+                + MemoryFootprint.of(decayTable) + MemoryFootprint.splittableRandom()
+                + MemoryFootprint.of(hashes) + minHeap.memoryFootprintBytes() + MemoryFootprint.of(rowHashes)
+                + MemoryFootprint.of(items);
+    }
+
+    /**
+     * Reports how hard the buckets are contended. A high {@code decays} to {@code inserts} ratio means
+     * the arrays are too small for the number of active flows, and frequent {@code heapEvictions}
+     * mean the k-th largest flow is barely distinguishable from the tail.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("inserts", inserts);
+        metrics.put("decays", decays);
+        metrics.put("bucketTakeovers", takeovers);
+        metrics.put("heapEvictions", evictions);
+        metrics.put("trackedFlows", minHeap.size());
+        metrics.put("minTrackedCount", minHeap.size() == 0 ? 0 : minHeap.minCount());
+        return metrics;
+    }
+
+    /**
+     * Returns the tracked flows ordered by descending count. In fingerprint-only mode the flows are
+     * resolved through the dictionary, and those it cannot resolve are left out.
+     */
+    public Map<T, Integer> getTopK() {
+        Map<T, Integer> topK = new LinkedHashMap<>();
+        minHeap.sort();
+        for (int rank = 0; rank < minHeap.size(); rank++) {
+            int slot = minHeap.slotAtRank(rank);
+            T flow = flowAt(slot);
+            if (flow != null) {
+                topK.put(flow, (int) minHeap.countAt(slot));
+            }
+        }
+        return topK;
+    }
+
+
+    public static void main(String[] args) {
+        Hasher simpleHasher = new MurmurHash3();
+        Serializer<String> stringSerializer = obj -> obj.getBytes(StandardCharsets.UTF_8);
+
+        HeavyKeeperTopK<String> tracker = new HeavyKeeperTopK<>(
+                3,      // d: number of hash functions
+                100,    // w: width of the tables
+                2,      // k: top-k to maintain
+                1.08,   // b: base for probabilistic decrement
+                simpleHasher,
+                stringSerializer
+        );
+
+        for (int i = 0; i < 100000; i++) {
+            tracker.insert("Player" + i);
+        }
+
+        for (int i = 0; i < 100000; i++) {
+            tracker.insert("Maradona");
+        }
+        for (int i = 0; i < 100000; i++) {
+            tracker.insert("Messi");
+        }
+
+        System.out.println("Top-K Flows:");
+        for (Map.Entry<String, Integer> entry : tracker.getTopK().entrySet()) {
+            System.out.println(entry.getKey() + " -> " + entry.getValue());
+        }
+    }
+
+
+}
@@ -0,0 +1,158 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import serializer.JavaSerializer;
+import serializer.Serializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class HyperLogLog<T> implements SketchMetrics {
+    private final int[] registers;
+    private final int b;
+    private final int m;
+    private final double alphaMM;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    // Kept up to date as registers rise, so metrics() does not scan the registers
+    private double inverseSum; // sum of 2^-register over all registers
+    private int zeroRegisters;
+
+    public HyperLogLog(int b, Hasher hasher, Serializer<T> serializer) {
+        if (b < 4 || b > 16) {
+            throw new IllegalArgumentException("b must be between 4 and 16");
+        }
+        this.b = b;
+        this.m = 1 << b;
+        this.registers = new int[m];
+        this.alphaMM = getAlphaMM(m);
+        this.inverseSum = m;
+        this.zeroRegisters = m;
+        this.hasher = Objects.requireNonNullElseGet(hasher, () -> new MurmurHash3());
+        this.serializer = Objects.requireNonNullElseGet(serializer, () -> new JavaSerializer<>());
+    }
+
+    public HyperLogLog(int b) {
+        this(b, null, null);
+    }
+
+    /**
+     * Creates the sketch with the most registers, and so the lowest standard error, whose
+     * {@link #memoryFootprintBytes()} fits in {@code budgetBytes}.
+     *
+     * @throws IllegalArgumentException if the budget does not even fit {@code b = 4}
+     */
+    public static <T> HyperLogLog<T> withMemoryBudget(long budgetBytes, Hasher hasher, Serializer<T> serializer) {
+        int b = (int) MemoryFootprint.largestFitting(4, 16, bits -> footprint((int) bits) <= budgetBytes, budgetBytes);
+        return new HyperLogLog<>(b, hasher, serializer);
+    }
+
+    static long footprint(int b) {
+        return MemoryFootprint.shallowSize(HyperLogLog.class) + MemoryFootprint.array(1L << b, Integer.BYTES);
+    }
+
+
+    public void add(T item) {
+        byte[] data = serializer.serialize(item);
+        addHash(hasher.hash64(data, 0));
+    }
+
+    /**
+     * Adds {@code items[0, count)}, hashing all of them before touching the registers.
+     */
+    @SuppressWarnings("unchecked")
+    void addBatch(Object[] items, int count, long[] hashes) {
+        for (int i = 0; i < count; i++) {
+            hashes[i] = hasher.hash64(serializer.serialize((T) items[i]), 0);
+        }
+        for (int i = 0; i < count; i++) {
+            addHash(hashes[i]);
+        }
+    }
+
+    /**
+     * Adds the item whose serialized form is {@code data[offset, offset + length)}, without copying it.
+     */
+    void addBytes(byte[] data, int offset, int length) {
+        addHash(hasher.hash64(data, offset, length, 0));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - b));
+        long remaining = hash << b;
+        int rank = Long.numberOfLeadingZeros(remaining) + 1;
+        if (rank > registers[index]) {
+            raise(index, rank);
+        }
+    }
+
+    private void raise(int index, int value) {
+        // Powers of two, so the running sum stays exact unless registers differ by more than 52
+        inverseSum += Math.scalb(1.0, -value) - Math.scalb(1.0, -registers[index]);
+        if (registers[index] == 0) zeroRegisters--;
+        registers[index] = value;
+    }
+
+    public long estimate() {
+        double sum = 0.0;
+        int zeros = 0;
+        for (int register : registers) {
+            sum += 1.0 / (1 << register);
+            if (register == 0) zeros++;
+        }
+        return estimate(alphaMM, m, sum, zeros);
+    }
+
+    /**
+     * The HyperLogLog estimate from the sum of {@code 2^-register} over all {@code m} registers and the
+     * number of zero registers, with linear counting for small cardinalities.
+     */
+    static long estimate(double alphaMM, int m, double sum, int zeros) {
+        double estimate = alphaMM / sum;
+        if (estimate <= 2.5 * m && zeros != 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog<T> other) {
+        if (other.registers.length != this.registers.length) {
+            throw new IllegalArgumentException("Invalid HLL size");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                raise(i, other.registers[i]);
+            }
+        }
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(registers);
+    }
+
+    /**
+     * Reports the register count and how many are still zero; while many are, the estimate relies on
+     * linear counting. The estimate comes from running totals, so polling does not scan the registers.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("registers", m);
+        metrics.put("zeroRegisters", zeroRegisters);
+        metrics.put("estimate", estimate(alphaMM, m, inverseSum, zeroRegisters));
+        metrics.put("standardError", 1.04 / Math.sqrt(m));
+        return metrics;
+    }
+
+    static double getAlphaMM(int m) {
+        return switch (m) {
+            case 16 -> 0.673 * m * m;
+            case 32 -> 0.697 * m * m;
+            case 64 -> 0.709 * m * m;
+            default -> (0.7213 / (1 + 1.079 / m)) * m * m;
+        };
+    }
+}
@@ -1,3 +1,5 @@
+package datastructures;
+
 public interface IBloomFilter<T> {
 
     void add(T item);
@@ -0,0 +1,267 @@
+package datastructures;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Bounded binary min-heap of counted 64-bit keys in which every entry knows its own position, so the
+ * count of any tracked key can be changed in O(log k) instead of the O(k) remove + offer of
+ * {@link java.util.PriorityQueue}.
+ * <p>
+ * Entries live in fixed slots {@code [0, capacity)} held in primitive arrays, and keys are indexed by
+ * a {@link LongIntHashMap}, so nothing is boxed. Callers that need to attach an object to a key keep it
+ * in their own array under the same slot. The heap array is a permutation of all slots: positions
+ * below {@code size} hold live entries, the rest are the free slots.
+ * <p>
+ * {@link #sort()} orders the live part of the heap array by count in place, so readers walk the entries
+ * with {@link #slotAtRank} without a copy. An ascending array is itself a valid min-heap, so updates go on
+ * as before, and the order is kept until the next change.
+ */
+final class IndexedMinHeap {
+    static final int ABSENT = LongIntHashMap.ABSENT;
+
+    private final long[] keys;      // by slot
+    private final long[] counts;    // by slot
+    private final int[] positions;  // slot -> heap position
+    private final int[] heap;       // heap position -> slot
+    private final LongIntHashMap index;
+    private int size = 0;
+    private boolean sorted = true; // heap[0, size) is in ascending count order
+
+    IndexedMinHeap(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.positions = new int[capacity];
+        this.heap = new int[capacity];
+        this.index = new LongIntHashMap(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            heap[slot] = slot;
+            positions[slot] = slot;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == heap.length;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or {@link #ABSENT}.
+     */
+    int slotOf(long key) {
+        return index.get(key);
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    long countAt(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Smallest count in the heap; only valid when the heap is not empty.
+     */
+    long minCount() {
+        return counts[heap[0]];
+    }
+
+    int minSlot() {
+        return heap[0];
+    }
+
+    /**
+     * Adds {@code key} to a heap that is not full and returns its slot.
+     */
+    int offer(long key, long count) {
+        if (isFull()) {
+            throw new IllegalStateException("Heap is full");
+        }
+        int slot = heap[size];
+        keys[slot] = key;
+        counts[slot] = count;
+        index.put(key, slot);
+        siftUp(size++);
+        sorted = false;
+        return slot;
+    }
+
+    /**
+     * Evicts the entry with the smallest count and reuses its slot for {@code key}.
+     *
+     * @return the reused slot
+     */
+    int replaceMin(long key, long count) {
+        int slot = heap[0];
+        index.remove(keys[slot]);
+        keys[slot] = key;
+        counts[slot] = count;
+        index.put(key, slot);
+        siftDown(0);
+        sorted = false;
+        return slot;
+    }
+
+    void update(int slot, long count) {
+        long previous = counts[slot];
+        counts[slot] = count;
+        if (count > previous) {
+            siftDown(positions[slot]);
+            sorted = false;
+        } else if (count < previous) {
+            siftUp(positions[slot]);
+            sorted = false;
+        }
+    }
+
+    /**
+     * Halves every count in place. Halving is monotone, so the heap and sort order are preserved; entries
+     * whose count drops to zero end up at the root and are removed, and their slots are passed to
+     * {@code removed}.
+     */
+    void halveCounts(IntConsumer removed) {
+        for (int p = 0; p < size; p++) {
+            counts[heap[p]] >>>= 1;
+        }
+        while (size > 0 && counts[heap[0]] == 0) {
+            removed.accept(removeMin());
+        }
+    }
+
+    private int removeMin() {
+        int slot = heap[0];
+        index.remove(keys[slot]);
+        size--;
+        sorted = false;
+        // Park the freed slot just past the live entries
+        swap(0, size);
+        if (size > 0) {
+            siftDown(0);
+        }
+        return slot;
+    }
+
+    static long footprint(int capacity) {
+        return MemoryFootprint.shallowSize(IndexedMinHeap.class) + 2 * MemoryFootprint.array(capacity, Long.BYTES)
+                + 2 * MemoryFootprint.array(capacity, Integer.BYTES) + LongIntHashMap.footprint(capacity);
+    }
+
+    long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(IndexedMinHeap.class) + MemoryFootprint.of(keys) + MemoryFootprint.of(counts)
+                + MemoryFootprint.of(positions) + MemoryFootprint.of(heap) + index.memoryFootprintBytes();
+    }
+
+    void clear() {
+        index.clear();
+        size = 0;
+        sorted = true;
+    }
+
+    /**
+     * Orders the live entries by count, so that {@link #slotAtRank} returns them by descending count. The
+     * heap array already satisfies the heap property, so only the extraction phase of heapsort runs, in
+     * place; it leaves the array descending, and reversed it is ascending, which is a valid min-heap. If
+     * nothing changed since the last call this does nothing.
+     */
+    void sort() {
+        if (sorted) {
+            return;
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int min = heap[0];
+            heap[0] = heap[end];
+            heap[end] = min;
+            siftDown(heap, 0, end);
+        }
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int slot = heap[i];
+            heap[i] = heap[j];
+            heap[j] = slot;
+        }
+        for (int position = 0; position < size; position++) {
+            positions[heap[position]] = position;
+        }
+        sorted = true;
+    }
+
+    /**
+     * Slot of the entry with the {@code rank}-th largest count, counting from 0. Only valid after
+     * {@link #sort()} and before the next change.
+     */
+    int slotAtRank(int rank) {
+        return heap[size - 1 - rank];
+    }
+
+    private void swap(int a, int b) {
+        int slotA = heap[a];
+        int slotB = heap[b];
+        heap[a] = slotB;
+        positions[slotB] = a;
+        heap[b] = slotA;
+        positions[slotA] = b;
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        long count = counts[slot];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int p = heap[parent];
+            if (counts[p] <= count) {
+                break;
+            }
+            heap[position] = p;
+            positions[p] = position;
+            position = parent;
+        }
+        heap[position] = slot;
+        positions[slot] = position;
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        long count = counts[slot];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && counts[heap[right]] < counts[heap[child]]) {
+                child = right;
+            }
+            int c = heap[child];
+            if (count <= counts[c]) {
+                break;
+            }
+            heap[position] = c;
+            positions[c] = position;
+            position = child;
+        }
+        heap[position] = slot;
+        positions[slot] = position;
+    }
+
+    // Variant used by sort(): sifts within array[0, size) and leaves positions to be rebuilt afterwards.
+    private void siftDown(int[] array, int position, int size) {
+        int slot = array[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && counts[array[right]] < counts[array[child]]) {
+                child = right;
+            }
+            if (counts[slot] <= counts[array[child]]) {
+                break;
+            }
+            array[position] = array[child];
+            position = child;
+        }
+        array[position] = slot;
+    }
+}
@@ -0,0 +1,362 @@
+package datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Lets any number of threads, for example virtual-thread request handlers, feed a structure that is not
+ * thread-safe. Producers publish items into a bounded lock-free ring buffer; a single writer thread drains
+ * it in batches of up to {@value #BATCH_SIZE} and applies each batch with the structure's bulk path, which
+ * hashes the whole batch before touching any bits, registers or counters. An idle writer spins briefly for
+ * the next burst and then parks until a producer wakes it, so idle pipelines cost no CPU.
+ * <p>
+ * While the pipeline is open the structure must only be read through {@link #query}, which first waits
+ * until everything published before the call has been applied. Items added concurrently with
+ * {@link #close()} may be lost.
+ *
+ * @param <T> item type
+ * @param <S> structure type
+ */
+public final class IngestPipeline<T, S> implements SketchMetrics, AutoCloseable {
+
+    /**
+     * What {@link #add} does when the ring buffer is full.
+     */
+    public enum Backpressure {
+        /** The producer parks until the writer frees a slot. */
+        BLOCK,
+        /** The item is dropped and counted, and {@link #add} returns {@code false}. */
+        DROP
+    }
+
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(Object[] items, int count, long[] hashes);
+    }
+
+    static final int BATCH_SIZE = 256;
+    private static final int LATENCY_SAMPLE_MASK = 1023; // one item in 1024 is timestamped
+    private static final int SPINS = 64;
+    private static final long MAX_PARK_NANOS = 100_000;
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findVarHandle(IngestPipeline.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final S sketch;
+    private final BatchWriter batchWriter;
+    private final Backpressure backpressure;
+    private final ReentrantLock sketchLock = new ReentrantLock();
+    private final Thread writer;
+    private final long startNanos = System.nanoTime();
+
+    // Ring buffer: slot i is free for sequence s when sequences[i] == s, and holds it when it is s + 1
+    private final Object[] slots;
+    private final long[] sequences;
+    private final long[] stamps;
+    private final int mask;
+    private volatile long tail = 0; // next sequence to claim
+    private long head = 0;          // next sequence to drain, writer only
+    private volatile long applied = 0;
+    private volatile boolean closed = false;
+    private volatile boolean parked = false; // writer is parked, or about to, until a producer unparks it
+    private volatile Throwable failure;
+
+    // Metrics; the volatile ones are only written by the writer
+    private final LongAdder dropped = new LongAdder();
+    private volatile long batches = 0;
+    private volatile long applyNanos = 0;
+    private volatile long latencySamples = 0;
+    private volatile long latencySumNanos = 0;
+    private volatile long latencyMaxNanos = 0;
+
+    private IngestPipeline(S sketch, BatchWriter batchWriter, int capacity, Backpressure backpressure) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.sketch = sketch;
+        this.batchWriter = batchWriter;
+        this.backpressure = backpressure;
+        this.slots = new Object[size];
+        this.sequences = new long[size];
+        this.stamps = new long[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+        this.writer = Thread.ofPlatform().daemon().name("ingest-" + sketch.getClass().getSimpleName())
+                .start(this::drain);
+    }
+
+    /**
+     * @param capacity ring buffer slots, rounded up to a power of two
+     */
+    public static <T> IngestPipeline<T, BloomFilter<T>> forBloomFilter(BloomFilter<T> filter, int capacity,
+                                                                       Backpressure backpressure) {
+        return new IngestPipeline<>(filter, filter::addBatch, capacity, backpressure);
+    }
+
+    public static <T> IngestPipeline<T, HyperLogLog<T>> forHyperLogLog(HyperLogLog<T> hll, int capacity,
+                                                                       Backpressure backpressure) {
+        return new IngestPipeline<>(hll, hll::addBatch, capacity, backpressure);
+    }
+
+    /**
+     * Counts every item once. Also accepts a {@link CountAllTopK}, whose heap is kept up to date.
+     */
+    public static <T, S extends CountMinSketch<T>> IngestPipeline<T, S> forCountMinSketch(S sketch, int capacity,
+                                                                                          Backpressure backpressure) {
+        return new IngestPipeline<>(sketch, sketch::addBatch, capacity, backpressure);
+    }
+
+    public static <T> IngestPipeline<T, HeavyKeeperTopK<T>> forHeavyKeeper(HeavyKeeperTopK<T> tracker, int capacity,
+                                                                           Backpressure backpressure) {
+        return new IngestPipeline<>(tracker, tracker::insertBatch, capacity, backpressure);
+    }
+
+    /**
+     * Publishes {@code item} for the writer.
+     *
+     * @return {@code false} if the buffer was full and the item was dropped
+     * @throws IllegalStateException if the pipeline is closed or the writer has failed
+     */
+    public boolean add(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        for (int attempt = 0; ; attempt++) {
+            checkOpen();
+            if (offer(item)) {
+                if (parked) {
+                    LockSupport.unpark(writer);
+                }
+                return true;
+            }
+            if (backpressure == Backpressure.DROP) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.unpark(writer);
+            backoff(attempt);
+        }
+    }
+
+    private boolean offer(Object item) {
+        while (true) {
+            long t = tail;
+            int index = (int) t & mask;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+            if (sequence == t) {
+                if (TAIL.compareAndSet(this, t, t + 1)) {
+                    slots[index] = item;
+                    if ((t & LATENCY_SAMPLE_MASK) == 0) {
+                        stamps[index] = System.nanoTime();
+                    }
+                    SEQUENCES.setRelease(sequences, index, t + 1);
+                    return true;
+                }
+            } else if (sequence < t) {
+                return false; // The slot still holds the item from the previous lap
+            }
+            // Otherwise another producer claimed t first
+        }
+    }
+
+    /**
+     * Waits until every item published before this call has been applied.
+     */
+    public void flush() {
+        long target = tail;
+        for (int attempt = 0; applied < target; attempt++) {
+            checkFailure();
+            LockSupport.unpark(writer);
+            backoff(attempt);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Runs {@code reader} on the structure after a {@link #flush()}, while the writer is held off, so it
+     * sees at least every item published before this call.
+     */
+    public <R> R query(Function<? super S, R> reader) {
+        flush();
+        sketchLock.lock();
+        try {
+            return reader.apply(sketch);
+        } finally {
+            sketchLock.unlock();
+        }
+    }
+
+    /**
+     * Rejects further items, waits until the writer has applied everything published and stops it. The
+     * structure can then be used directly.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private void drain() {
+        Object[] batch = new Object[BATCH_SIZE];
+        long[] hashes = new long[2 * BATCH_SIZE];
+        for (int idle = 0; ; ) {
+            int count = 0;
+            long stamp = 0;
+            while (count < BATCH_SIZE) {
+                int index = (int) head & mask;
+                if ((long) SEQUENCES.getAcquire(sequences, index) != head + 1) {
+                    break;
+                }
+                batch[count++] = slots[index];
+                slots[index] = null;
+                if ((head & LATENCY_SAMPLE_MASK) == 0) {
+                    stamp = stamps[index];
+                }
+                // Hand the slot back before applying, so producers are not held up by the update
+                SEQUENCES.setRelease(sequences, index, head + slots.length);
+                head++;
+            }
+            if (count == 0) {
+                if (closed && head == tail) {
+                    return;
+                }
+                if (idle++ < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    awaitItems();
+                }
+                continue;
+            }
+            idle = 0;
+
+            long start = System.nanoTime();
+            sketchLock.lock();
+            try {
+                batchWriter.write(batch, count, hashes);
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                closed = true;
+                return;
+            } finally {
+                sketchLock.unlock();
+            }
+            long end = System.nanoTime();
+            Arrays.fill(batch, 0, count, null);
+            applied = head;
+
+            batches++;
+            applyNanos += end - start;
+            if (stamp != 0) {
+                long latency = end - stamp;
+                latencySamples++;
+                latencySumNanos += latency;
+                latencyMaxNanos = Math.max(latencyMaxNanos, latency);
+            }
+        }
+    }
+
+    /**
+     * Parks the writer until a producer, {@link #flush()} or {@link #close()} unparks it. The writer sets
+     * {@code parked} before reading {@code tail}, and producers claim a sequence on {@code tail} before
+     * reading {@code parked}, so either the writer sees the new item or the producer sees the flag.
+     */
+    private void awaitItems() {
+        parked = true;
+        if (tail == head && !closed) {
+            LockSupport.park(this);
+        }
+        parked = false;
+    }
+
+    private static void backoff(int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            // Parks a virtual thread without pinning its carrier
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(attempt - SPINS, 7)));
+        }
+    }
+
+    Thread writerThread() {
+        return writer;
+    }
+
+    private void checkOpen() {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Ingest pipeline is closed");
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new IllegalStateException("Ingest writer failed", failure);
+        }
+    }
+
+    /**
+     * The ring buffer and the writer's batch arrays; the structure is not included.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(slots) + MemoryFootprint.of(sequences)
+                + MemoryFootprint.of(stamps) + MemoryFootprint.array(BATCH_SIZE, MemoryFootprint.REFERENCE)
+                + MemoryFootprint.array(2 * BATCH_SIZE, Long.BYTES);
+    }
+
+    /**
+     * Reports throughput and backlog. {@code meanLatencyNanos} and {@code maxLatencyNanos} are measured
+     * from publication to the end of the batch that applied the item, on one item in 1024.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        long published = tail;
+        long done = applied;
+        long samples = latencySamples;
+        long batchCount = batches;
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("capacity", slots.length);
+        metrics.put("published", published);
+        metrics.put("dropped", dropped.sum());
+        metrics.put("applied", done);
+        metrics.put("queueDepth", published - done);
+        metrics.put("batches", batchCount);
+        metrics.put("meanBatchSize", batchCount == 0 ? 0.0 : (double) done / batchCount);
+        metrics.put("itemsPerSecond", done / seconds);
+        metrics.put("applyNanosPerItem", done == 0 ? 0.0 : (double) applyNanos / done);
+        metrics.put("meanLatencyNanos", samples == 0 ? 0.0 : (double) latencySumNanos / samples);
+        metrics.put("maxLatencyNanos", latencyMaxNanos);
+        return metrics;
+    }
+}
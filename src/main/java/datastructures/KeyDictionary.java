@@ -0,0 +1,29 @@
+package datastructures;
+
+/**
+ * Maps the 64-bit fingerprints tracked by a top-k structure back to their keys. Supplying one puts the
+ * tracker in fingerprint-only mode: it keeps no references to the keys it counts, tells the dictionary
+ * when a fingerprint enters or leaves the top-k, and asks it for keys only when the top-k is reported.
+ * <p>
+ * The dictionary decides what to retain. It can keep a compact form of each key, look keys up in an
+ * external store, or hold at most {@code k} entries by honouring {@link #release}.
+ */
+public interface KeyDictionary<T> {
+
+    /**
+     * Called when {@code key} enters the top-k under {@code fingerprint}.
+     */
+    void record(long fingerprint, T key);
+
+    /**
+     * Called when {@code fingerprint} leaves the top-k.
+     */
+    default void release(long fingerprint) {
+    }
+
+    /**
+     * Returns the key for {@code fingerprint}, or {@code null} if it is unknown; unresolved entries are
+     * left out of the reported top-k.
+     */
+    T resolve(long fingerprint);
+}
@@ -0,0 +1,39 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+
+import java.util.Map;
+
+/**
+ * Bloom filter over {@code long} keys. Keys are mixed with {@link MurmurHash3#fmix64} instead of being
+ * boxed, serialized and hashed, so {@link #add} and {@link #contains} allocate nothing. Sizing and
+ * false-positive behaviour are those of {@link BloomFilter}.
+ */
+public class LongBloomFilter implements SketchMetrics {
+    private final BloomFilter<Long> filter;
+
+    public LongBloomFilter(double errorRate, long numElements) {
+        this.filter = new BloomFilter<>(errorRate, numElements);
+    }
+
+    public void add(long key) {
+        filter.add(MurmurHash3.fmix64(key ^ HashSeed.PRIMARY_HASH_SEED),
+                MurmurHash3.fmix64(key ^ HashSeed.SECONDARY_HASH_SEED));
+    }
+
+    public boolean contains(long key) {
+        return filter.contains(MurmurHash3.fmix64(key ^ HashSeed.PRIMARY_HASH_SEED),
+                MurmurHash3.fmix64(key ^ HashSeed.SECONDARY_HASH_SEED));
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + filter.memoryFootprintBytes();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return filter.metrics();
+    }
+
+}
@@ -0,0 +1,72 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+
+import java.util.Map;
+
+/**
+ * Count-Min Sketch over {@code long} keys. Keys are mixed with {@link MurmurHash3#fmix64} instead of
+ * being boxed, serialized and hashed, so updates and queries allocate nothing. Table layout, counter
+ * width and error bounds are those of {@link CountMinSketch}.
+ */
+public class LongCountMinSketch implements SketchMetrics {
+    private final CountMinSketch<Long> sketch;
+
+    public LongCountMinSketch(double epsilon, double delta, CountMinSketch.Layout layout,
+                              CountMinSketch.CounterWidth counterWidth, CountMinSketch.OverflowPolicy overflowPolicy) {
+        this.sketch = new CountMinSketch<>(epsilon, delta, layout, counterWidth, overflowPolicy, new MurmurHash3(), null);
+    }
+
+    public LongCountMinSketch(double epsilon, double delta) {
+        this(epsilon, delta, CountMinSketch.Layout.STANDARD, CountMinSketch.CounterWidth.BITS_64,
+                CountMinSketch.OverflowPolicy.PROMOTE);
+    }
+
+    public void add(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        sketch.add(MurmurHash3.fmix64(key ^ HashSeed.PRIMARY_HASH_SEED),
+                MurmurHash3.fmix64(key ^ HashSeed.SECONDARY_HASH_SEED), value);
+    }
+
+    public long addAndEstimate(long key, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        return sketch.addAndEstimate(MurmurHash3.fmix64(key ^ HashSeed.PRIMARY_HASH_SEED),
+                MurmurHash3.fmix64(key ^ HashSeed.SECONDARY_HASH_SEED), value);
+    }
+
+    public long estimateCount(long key) {
+        return sketch.estimateCount(MurmurHash3.fmix64(key ^ HashSeed.PRIMARY_HASH_SEED),
+                MurmurHash3.fmix64(key ^ HashSeed.SECONDARY_HASH_SEED));
+    }
+
+    public void merge(LongCountMinSketch other) {
+        sketch.merge(other.sketch);
+    }
+
+    public long getTotalCount() {
+        return sketch.getTotalCount();
+    }
+
+    public long getErrorBound() {
+        return sketch.getErrorBound();
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + sketch.memoryFootprintBytes();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return sketch.metrics();
+    }
+
+}
@@ -0,0 +1,79 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+
+import java.util.Map;
+
+/**
+ * HeavyKeeper top-k over {@code long} keys. The fingerprint of a key is {@link MurmurHash3#fmix64} of
+ * the key, which is a bijection: distinct keys never share a fingerprint, and the tracker runs in
+ * fingerprint-only mode, recovering keys by inverting the mixer when the top-k is reported. Inserts
+ * therefore neither box, serialize nor allocate.
+ */
+public class LongHeavyKeeper implements SketchMetrics {
+    private final HeavyKeeperTopK<Long> tracker;
+    private final long seed;
+
+    public LongHeavyKeeper(int d, int w, int k, double b, long seed) {
+        this.seed = seed;
+        this.tracker = new HeavyKeeperTopK<>(d, w, k, b, seed, new MurmurHash3(), null, new KeyDictionary<>() {
+            @Override
+            public void record(long fingerprint, Long key) {
+            }
+
+            @Override
+            public Long resolve(long fingerprint) {
+                return unmix(fingerprint) ^ seed;
+            }
+        });
+    }
+
+    public LongHeavyKeeper(int d, int w, int k, double b) {
+        this(d, w, k, b, HashSeed.PRIMARY_HASH_SEED);
+    }
+
+    public void insert(long key) {
+        long fp = MurmurHash3.fmix64(key ^ seed);
+        tracker.insert(null, fp, MurmurHash3.fmix64(fp));
+    }
+
+    /**
+     * Halves all counts; see {@link HeavyKeeperTopK#age()}.
+     */
+    public void age() {
+        tracker.age();
+    }
+
+    public void merge(LongHeavyKeeper other) {
+        tracker.merge(other.tracker);
+    }
+
+    /**
+     * Returns the tracked keys ordered by descending count.
+     */
+    public Map<Long, Integer> getTopK() {
+        return tracker.getTopK();
+    }
+
+    // Inverse of MurmurHash3.fmix64: each xor-shift by 33 is its own inverse, and the multipliers are
+    // replaced by their inverses modulo 2^64.
+    static long unmix(long k) {
+        k ^= k >>> 33;
+        k *= 0x9cb4b2f8129337dbL;
+        k ^= k >>> 33;
+        k *= 0x4f74430c22a54005L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + tracker.memoryFootprintBytes();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return tracker.metrics();
+    }
+
+}
@@ -0,0 +1,130 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to non-negative {@code int} values, with linear
+ * probing and backward-shift deletion so no tombstones accumulate. Used to index fixed-size
+ * counter arrays without boxing keys.
+ */
+final class LongIntHashMap {
+    static final int ABSENT = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size = 0;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        return Math.max(16, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+    }
+
+    /**
+     * Heap size of a map created for {@code expectedSize} keys, as long as it has not grown since.
+     */
+    static long footprint(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        return MemoryFootprint.shallowSize(LongIntHashMap.class) + MemoryFootprint.array(capacity, Long.BYTES)
+                + MemoryFootprint.array(capacity, Integer.BYTES);
+    }
+
+    long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(LongIntHashMap.class) + MemoryFootprint.of(keys) + MemoryFootprint.of(values);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        this.mask = capacity - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    // Fibonacci hashing: keys may be raw sequential ids, so spread them before masking.
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@link #ABSENT}.
+     */
+    int get(long key) {
+        for (int i = home(key); ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == ABSENT || keys[i] == key) {
+                return value;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative");
+        }
+        int i = home(key);
+        while (values[i] != ABSENT) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) >>> 1) {
+            rehash();
+        }
+    }
+
+    /**
+     * Removes {@code key} and returns its value, or {@link #ABSENT}.
+     */
+    int remove(long key) {
+        int i = home(key);
+        while (values[i] != ABSENT && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        if (removed == ABSENT) {
+            return ABSENT;
+        }
+        // Shift back following entries whose probe sequence passes through the freed slot
+        int gap = i;
+        for (int j = (i + 1) & mask; values[j] != ABSENT; j = (j + 1) & mask) {
+            if (((j - home(keys[j])) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = ABSENT;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(values, ABSENT);
+        size = 0;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != ABSENT) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package datastructures;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SpaceSaving top-k over {@code long} keys, using the Stream-Summary layout: counters are grouped in
+ * buckets of equal count, and the buckets form a list sorted by count. A unit increment moves a
+ * counter to the neighbouring bucket, so it is O(1); an increment by {@code v} walks past at most the
+ * buckets whose counts lie in between.
+ * <p>
+ * With {@code k} counters every reported count overestimates the true frequency by at most its
+ * error, which is itself at most {@code N / k}. Every item with a true frequency above {@code N / k}
+ * is guaranteed to be tracked. All state is kept in primitive arrays indexed by counter slot.
+ */
+public class LongSpaceSavingTopK implements SketchMetrics {
+    static final int NIL = -1;
+
+    private final int k;
+    private final LongIntHashMap index;
+
+    // Counters, indexed by slot
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] counterBucket;
+    private final int[] counterNext;
+    private final int[] counterPrev;
+    private int size = 0;
+
+    // Buckets, linked in ascending order of count
+    private final long[] bucketCount;
+    private final int[] bucketHead;
+    private final int[] bucketNext;
+    private final int[] bucketPrev;
+    private int freeBuckets;
+    private int minBucket = NIL;
+    private int maxBucket = NIL;
+
+    private long totalCount = 0;
+    private long evictions = 0;
+
+    public LongSpaceSavingTopK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+        this.index = new LongIntHashMap(k);
+        this.keys = new long[k];
+        this.counts = new long[k];
+        this.errors = new long[k];
+        this.counterBucket = new int[k];
+        this.counterNext = new int[k];
+        this.counterPrev = new int[k];
+
+        // One spare bucket: a counter may need its new bucket before its old one is released
+        this.bucketCount = new long[k + 1];
+        this.bucketHead = new int[k + 1];
+        this.bucketNext = new int[k + 1];
+        this.bucketPrev = new int[k + 1];
+        resetBuckets();
+    }
+
+    private void resetBuckets() {
+        for (int b = 0; b < bucketNext.length; b++) {
+            bucketNext[b] = b + 1 < bucketNext.length ? b + 1 : NIL;
+        }
+        freeBuckets = 0;
+        minBucket = NIL;
+        maxBucket = NIL;
+    }
+
+    public void add(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, long value) {
+        addSlot(key, value);
+    }
+
+    /**
+     * Adds {@code value} for {@code key} and returns the slot of the counter now holding the key.
+     * When the summary is full, the key takes over a counter with the minimum count.
+     */
+    int addSlot(long key, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        int slot = index.get(key);
+        if (slot == LongIntHashMap.ABSENT) {
+            if (size < k) {
+                slot = size++;
+                counts[slot] = 0;
+                errors[slot] = 0;
+                counterBucket[slot] = NIL;
+            } else {
+                slot = bucketHead[minBucket];
+                evictions++;
+                TopKEvictionEvent.emit(LongSpaceSavingTopK.class, counts[slot], counts[slot] + value);
+                index.remove(keys[slot]);
+                errors[slot] = counts[slot];
+            }
+            keys[slot] = key;
+            index.put(key, slot);
+        }
+        totalCount += value;
+        if (value > 0 || counterBucket[slot] == NIL) {
+            increment(slot, value);
+        }
+        return slot;
+    }
+
+    private void increment(int slot, long value) {
+        int bucket = counterBucket[slot];
+        long newCount = counts[slot] + value;
+        counts[slot] = newCount;
+
+        // Find the last bucket with a count below newCount, starting from the current one
+        int prev = bucket;
+        int next = bucket == NIL ? minBucket : bucketNext[bucket];
+        while (next != NIL && bucketCount[next] < newCount) {
+            prev = next;
+            next = bucketNext[next];
+        }
+
+        int target;
+        if (next != NIL && bucketCount[next] == newCount) {
+            target = next;
+        } else if (bucket != NIL && prev == bucket && bucketHead[bucket] == slot && counterNext[slot] == NIL) {
+            // Sole counter of its bucket and no bucket in between: just relabel the bucket
+            bucketCount[bucket] = newCount;
+            return;
+        } else {
+            target = allocateBucket(newCount, prev);
+        }
+
+        if (bucket != NIL) {
+            detach(slot);
+            if (bucketHead[bucket] == NIL) {
+                releaseBucket(bucket);
+            }
+        }
+        attach(slot, target);
+    }
+
+    private int allocateBucket(long count, int after) {
+        int b = freeBuckets;
+        freeBuckets = bucketNext[b];
+        bucketCount[b] = count;
+        bucketHead[b] = NIL;
+        bucketPrev[b] = after;
+        bucketNext[b] = after == NIL ? minBucket : bucketNext[after];
+        if (after == NIL) {
+            minBucket = b;
+        } else {
+            bucketNext[after] = b;
+        }
+        if (bucketNext[b] == NIL) {
+            maxBucket = b;
+        } else {
+            bucketPrev[bucketNext[b]] = b;
+        }
+        return b;
+    }
+
+    private void releaseBucket(int b) {
+        int prev = bucketPrev[b];
+        int next = bucketNext[b];
+        if (prev == NIL) {
+            minBucket = next;
+        } else {
+            bucketNext[prev] = next;
+        }
+        if (next == NIL) {
+            maxBucket = prev;
+        } else {
+            bucketPrev[next] = prev;
+        }
+        bucketNext[b] = freeBuckets;
+        freeBuckets = b;
+    }
+
+    private void attach(int slot, int bucket) {
+        int head = bucketHead[bucket];
+        counterBucket[slot] = bucket;
+        counterPrev[slot] = NIL;
+        counterNext[slot] = head;
+        if (head != NIL) {
+            counterPrev[head] = slot;
+        }
+        bucketHead[bucket] = slot;
+    }
+
+    private void detach(int slot) {
+        int prev = counterPrev[slot];
+        int next = counterNext[slot];
+        if (prev == NIL) {
+            bucketHead[counterBucket[slot]] = next;
+        } else {
+            counterNext[prev] = next;
+        }
+        if (next != NIL) {
+            counterPrev[next] = prev;
+        }
+    }
+
+    /**
+     * Upper bound on the frequency of {@code key}: its counter if tracked, otherwise the minimum count
+     * once the summary is full, since an untracked item cannot have been seen more often than that.
+     */
+    public long estimateCount(long key) {
+        int slot = index.get(key);
+        if (slot != LongIntHashMap.ABSENT) {
+            return counts[slot];
+        }
+        return getMinCount();
+    }
+
+    /**
+     * Lower bound on the frequency of {@code key}: its count minus the error inherited on eviction.
+     */
+    public long guaranteedCount(long key) {
+        int slot = index.get(key);
+        return slot == LongIntHashMap.ABSENT ? 0 : counts[slot] - errors[slot];
+    }
+
+    public boolean contains(long key) {
+        return index.get(key) != LongIntHashMap.ABSENT;
+    }
+
+    /**
+     * Smallest tracked count once all {@code k} counters are in use, {@code 0} before that.
+     */
+    public long getMinCount() {
+        return size < k ? 0 : bucketCount[minBucket];
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + index.memoryFootprintBytes()
+                + MemoryFootprint.of(keys) + MemoryFootprint.of(counts) + MemoryFootprint.of(errors)
+                + MemoryFootprint.of(counterBucket) + MemoryFootprint.of(counterNext) + MemoryFootprint.of(counterPrev)
+                + MemoryFootprint.of(bucketCount) + MemoryFootprint.of(bucketHead)
+                + MemoryFootprint.of(bucketNext) + MemoryFootprint.of(bucketPrev);
+    }
+
+    /**
+     * {@code minCount} bounds the overestimate of every reported count; {@code evictions} counts
+     * counters taken over by a new key.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("k", k);
+        metrics.put("trackedItems", size);
+        metrics.put("minCount", getMinCount());
+        metrics.put("totalCount", totalCount);
+        metrics.put("evictions", evictions);
+        return metrics;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    long countAt(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Slots of all tracked counters in descending order of count, read straight off the bucket list.
+     */
+    int[] slotsDescending() {
+        int[] slots = new int[size];
+        int n = 0;
+        for (int b = maxBucket; b != NIL; b = bucketPrev[b]) {
+            for (int slot = bucketHead[b]; slot != NIL; slot = counterNext[slot]) {
+                slots[n++] = slot;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the tracked keys ordered by descending count.
+     */
+    public List<Map.Entry<Long, Long>> getTopK() {
+        int[] slots = slotsDescending();
+        List<Map.Entry<Long, Long>> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(keys[slot], counts[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Combines another summary into this one, following the mergeable-summaries construction: a key
+     * missing from one summary is charged that summary's minimum count, then the {@code k} largest
+     * counts are kept. The error guarantee becomes {@code (N1 + N2) / k}.
+     */
+    public void merge(LongSpaceSavingTopK other) {
+        long thisMin = getMinCount();
+        long otherMin = other.getMinCount();
+
+        int n = 0;
+        long[] mergedKeys = new long[size + other.size];
+        long[] mergedCounts = new long[mergedKeys.length];
+        long[] mergedErrors = new long[mergedKeys.length];
+        for (int slot = 0; slot < size; slot++) {
+            int otherSlot = other.index.get(keys[slot]);
+            mergedKeys[n] = keys[slot];
+            if (otherSlot == LongIntHashMap.ABSENT) {
+                mergedCounts[n] = counts[slot] + otherMin;
+                mergedErrors[n] = errors[slot] + otherMin;
+            } else {
+                mergedCounts[n] = counts[slot] + other.counts[otherSlot];
+                mergedErrors[n] = errors[slot] + other.errors[otherSlot];
+            }
+            n++;
+        }
+        for (int slot = 0; slot < other.size; slot++) {
+            if (index.get(other.keys[slot]) == LongIntHashMap.ABSENT) {
+                mergedKeys[n] = other.keys[slot];
+                mergedCounts[n] = other.counts[slot] + thisMin;
+                mergedErrors[n] = other.errors[slot] + thisMin;
+                n++;
+            }
+        }
+
+        // Order candidates by ascending count, then keep the k largest
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(mergedCounts[a], mergedCounts[b]));
+
+        long mergedTotal = totalCount + other.totalCount;
+        index.clear();
+        resetBuckets();
+        size = 0;
+        for (int i = Math.max(0, n - k); i < n; i++) {
+            int c = order[i];
+            int slot = size++;
+            keys[slot] = mergedKeys[c];
+            counts[slot] = mergedCounts[c];
+            errors[slot] = mergedErrors[c];
+            index.put(keys[slot], slot);
+            int bucket = maxBucket != NIL && bucketCount[maxBucket] == counts[slot]
+                    ? maxBucket
+                    : allocateBucket(counts[slot], maxBucket);
+            attach(slot, bucket);
+        }
+        totalCount = mergedTotal;
+    }
+}
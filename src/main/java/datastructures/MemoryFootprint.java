@@ -0,0 +1,132 @@
+package datastructures;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.function.LongPredicate;
+
+/**
+ * Heap sizes of objects and arrays on a 64-bit HotSpot JVM with compressed class pointers and
+ * compressed oops, the default for heaps below 32 GB: 12-byte object headers, 16-byte array headers,
+ * 4-byte references and 8-byte alignment.
+ */
+final class MemoryFootprint {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long size = OBJECT_HEADER;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += fieldSize(field.getType());
+                    }
+                }
+            }
+            // Fields are packed into gaps, so only the total is padded
+            return align(size);
+        }
+    };
+
+    private MemoryFootprint() {
+    }
+
+    /**
+     * Size of an instance of {@code type} itself, without anything it references.
+     */
+    static long shallowSize(Class<?> type) {
+        return SHALLOW_SIZES.get(type);
+    }
+
+    /**
+     * Size of a {@link SplittableRandom}, which since JDK 17 keeps a small proxy object next to its state.
+     */
+    static long splittableRandom() {
+        long size = shallowSize(SplittableRandom.class);
+        for (Field field : SplittableRandom.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                size += shallowSize(field.getType());
+            }
+        }
+        return size;
+    }
+
+    static long array(long length, int elementSize) {
+        return align(ARRAY_HEADER + length * elementSize);
+    }
+
+    static long of(long[] array) {
+        return array(array.length, Long.BYTES);
+    }
+
+    static long of(int[] array) {
+        return array(array.length, Integer.BYTES);
+    }
+
+    static long of(short[] array) {
+        return array(array.length, Short.BYTES);
+    }
+
+    static long of(byte[] array) {
+        return array(array.length, Byte.BYTES);
+    }
+
+    static long of(double[] array) {
+        return array(array.length, Double.BYTES);
+    }
+
+    /**
+     * Size of a reference array, without the objects it points to. {@code null} counts as nothing.
+     */
+    static long of(Object[] array) {
+        return array == null ? 0 : array(array.length, REFERENCE);
+    }
+
+    static long bitSet(long bits) {
+        return shallowSize(BitSet.class) + array((bits + Long.SIZE - 1) / Long.SIZE, Long.BYTES);
+    }
+
+    /**
+     * Returns the largest value in {@code [min, max]} for which {@code fits} holds, assuming it is
+     * monotone: true up to some value and false above it.
+     *
+     * @throws IllegalArgumentException if it does not even hold for {@code min}
+     */
+    static long largestFitting(long min, long max, LongPredicate fits, long budgetBytes) {
+        if (!fits.test(min)) {
+            throw new IllegalArgumentException("Memory budget of " + budgetBytes + " bytes is too small");
+        }
+        long lo = min;
+        long hi = max;
+        while (lo < hi) {
+            long mid = lo + (hi - lo + 1) / 2;
+            if (fits.test(mid)) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -1,11 +1,14 @@
+package datastructures;
+
 import hasher.Hasher;
-import hasher.MurmurHash3;
 import serializer.Serializer;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class ScalableBloomFilter<T> implements IBloomFilter<T> {
+public class ScalableBloomFilter<T> implements IBloomFilter<T>, SketchMetrics {
 
     private final List<BloomFilter<T>> filters;
     private final double errorRate;
@@ -27,7 +30,7 @@ public class ScalableBloomFilter<T> implements IBloomFilter<T> {
     }
 
     private void addNewFilter(double errorRate, long capacity) {
-        BloomFilter<T> filter = new BloomFilter<>(errorRate, capacity, new MurmurHash3(), this.serializer);
+        BloomFilter<T> filter = new BloomFilter<>(errorRate, capacity, this.hasher, this.serializer);
         filters.add(filter);
     }
 
@@ -43,6 +46,7 @@ public class ScalableBloomFilter<T> implements IBloomFilter<T> {
                 double newErrorRate = currentFilter.errorRate * tighteningRatio;
                 long newCapacity = (long) (currentFilter.numElements * growthRate);
                 addNewFilter(newErrorRate, newCapacity);
+                BloomFilterGrowthEvent.emit(filters.size(), newCapacity, newErrorRate);
             }
             filters.getLast().add(h1, h2);
         }
@@ -75,4 +79,47 @@ public class ScalableBloomFilter<T> implements IBloomFilter<T> {
         return filter.bitsSetCount > filter.bitSet.size() * 0.5;
     }
 
+    /**
+     * All stages, plus the list holding them; grows by the footprint of each new stage.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        // ArrayList grows its array from 10 slots by half each time
+        int capacity = 10;
+        while (capacity < filters.size()) {
+            capacity += capacity >> 1;
+        }
+        long bytes = MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.shallowSize(ArrayList.class)
+                + MemoryFootprint.array(capacity, MemoryFootprint.REFERENCE);
+        for (BloomFilter<T> filter : filters) {
+            bytes += filter.memoryFootprintBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Reports the number of stages and the combined false-positive estimate: a query is a false
+     * positive unless every stage rejects it.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        long bits = 0;
+        long bitsSet = 0;
+        double allReject = 1.0;
+        for (BloomFilter<T> filter : filters) {
+            bits += filter.bitCount();
+            bitsSet += filter.bitsSetCount;
+            allReject *= 1 - filter.estimatedFalsePositiveRate();
+        }
+        BloomFilter<T> last = filters.getLast();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("stages", filters.size());
+        metrics.put("bits", bits);
+        metrics.put("bitsSet", bitsSet);
+        metrics.put("lastStageFillRatio", (double) last.bitsSetCount / last.bitCount());
+        metrics.put("estimatedFpp", 1 - allReject);
+        metrics.put("targetFpp", errorRate);
+        return metrics;
+    }
+
 }
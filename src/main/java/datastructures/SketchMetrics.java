@@ -0,0 +1,26 @@
+package datastructures;
+
+import java.util.Map;
+
+/**
+ * Health readings of a sketch, so that it can be resized before its accuracy collapses. Snapshots are
+ * computed on demand from state the structure keeps anyway, plus a few plain event counters, so
+ * instrumentation costs nothing until it is read. Concurrent structures are read without blocking
+ * writers and may return slightly stale values.
+ * <p>
+ * Metric names are stable and camel-cased; which ones are present depends on the structure.
+ */
+public interface SketchMetrics {
+
+    /**
+     * Returns a point-in-time snapshot of this structure's metrics, in a stable order.
+     */
+    Map<String, Number> metrics();
+
+    /**
+     * Returns the heap retained by this structure in bytes: the structure, its arrays and the helper
+     * objects it owns, but not the hasher, serializer or tracked keys supplied by the caller. Sizes are
+     * those of a 64-bit HotSpot JVM with compressed oops, the default for heaps below 32 GB.
+     */
+    long memoryFootprintBytes();
+}
@@ -0,0 +1,334 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.XXH3;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command-line tool that counts the distinct values and the most frequent values of a field in
+ * line-oriented files, for example the user or URL column of a large log:
+ * <pre>
+ * java -cp target/classes datastructures.SketchTool --field 2 --top 100 access.log
+ * </pre>
+ * The files are cut into segments that end on line boundaries. Each worker thread takes segments off a
+ * shared index, reads them in chunks into one reused buffer and feeds its own {@link HyperLogLog},
+ * {@link HeavyKeeperTopK} and {@link CountMinSketch}, hashing the field bytes in place; only values that
+ * enter a top-k are decoded into
+ * {@code String}s. The per-thread sketches are merged at the end. Fields are hashed as UTF-8 bytes, so the
+ * sketches equal those built by adding the same values as {@code String}s with a UTF-8
+ * {@link StringSerializer}.
+ */
+public final class SketchTool {
+
+    static final class Options {
+        int field = -1;               // -1: the whole line
+        byte delimiter = '\t';
+        int topK = 10;
+        int precision = 14;
+        double epsilon = 0.0001;
+        double delta = 0.001;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int segmentBytes = 32 << 20;
+        int readBytes = 1 << 20;      // chunk size; small enough for the copy out of the kernel to stay in cache
+        List<Path> files = new ArrayList<>();
+    }
+
+    /**
+     * Merged sketches of all input files.
+     */
+    static final class Result {
+        final HyperLogLog<String> distinct;
+        final HeavyKeeperTopK<String> topK;
+        final CountMinSketch<String> counts;
+        long lines;
+        long bytes;
+
+        Result(HyperLogLog<String> distinct, HeavyKeeperTopK<String> topK, CountMinSketch<String> counts) {
+            this.distinct = distinct;
+            this.topK = topK;
+            this.counts = counts;
+        }
+    }
+
+    private static final int TOP_K_DEPTH = 2;
+    private static final int TOP_K_WIDTH = 1 << 16;
+    private static final double TOP_K_DECAY = 1.08;
+
+    private static final Hasher HASHER = new XXH3();
+    private static final Serializer<String> SERIALIZER = new StringSerializer(StandardCharsets.UTF_8);
+    private static final HeavyKeeperTopK.KeyDecoder<String> DECODER =
+            (data, offset, length) -> new String(data, offset, length, StandardCharsets.UTF_8);
+
+    private SketchTool() {
+    }
+
+    /**
+     * A byte range of one file that starts at the beginning of a line and ends after a newline or at the
+     * end of the file.
+     */
+    private record Segment(Path file, long start, long end) {
+    }
+
+    static Result analyse(Options options) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        for (Path file : options.files) {
+            split(file, options.segmentBytes, segments);
+        }
+
+        int threads = Math.max(1, Math.min(options.threads, segments.size()));
+        AtomicInteger next = new AtomicInteger();
+        List<Future<Result>> futures = new ArrayList<>(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Result partial = newResult(options);
+                    byte[] buffer = new byte[options.readBytes];
+                    for (int i = next.getAndIncrement(); i < segments.size(); i = next.getAndIncrement()) {
+                        buffer = scan(segments.get(i), buffer, options, partial);
+                    }
+                    return partial;
+                }));
+            }
+        }
+
+        Result result = null;
+        for (Future<Result> future : futures) {
+            Result partial;
+            try {
+                partial = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for workers", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw new IllegalStateException("Worker failed", e.getCause());
+            }
+            if (result == null) {
+                result = partial;
+            } else {
+                result.distinct.merge(partial.distinct);
+                result.topK.merge(partial.topK);
+                result.counts.merge(partial.counts);
+                result.lines += partial.lines;
+                result.bytes += partial.bytes;
+            }
+        }
+        return result == null ? newResult(options) : result;
+    }
+
+    private static Result newResult(Options options) {
+        return new Result(
+                new HyperLogLog<>(options.precision, HASHER, SERIALIZER),
+                new HeavyKeeperTopK<>(TOP_K_DEPTH, TOP_K_WIDTH, Math.max(1, options.topK), TOP_K_DECAY, HASHER, SERIALIZER),
+                new CountMinSketch<>(options.epsilon, options.delta, HASHER, SERIALIZER));
+    }
+
+    /**
+     * Cuts {@code file} into segments of about {@code segmentBytes}, moving every cut forward to just past
+     * the next newline.
+     */
+    private static void split(Path file, int segmentBytes, List<Segment> segments) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + segmentBytes);
+                while (end < size) {
+                    probe.clear();
+                    int read = channel.read(probe, end);
+                    int newline = indexOf(probe.array(), 0, Math.max(read, 0), (byte) '\n');
+                    if (newline >= 0) {
+                        end += newline + 1;
+                        break;
+                    }
+                    end += Math.max(read, 0);
+                }
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException(file + " has a line longer than 2 GiB");
+                }
+                segments.add(new Segment(file, start, end));
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Reads {@code segment} in chunks into {@code buffer} and feeds the selected field of every line to
+     * {@code result}. A line cut by the end of a chunk is moved to the front of the buffer and completed by
+     * the next read; the buffer is doubled for lines longer than itself, and returned.
+     */
+    private static byte[] scan(Segment segment, byte[] buffer, Options options, Result result) {
+        try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ)) {
+            long position = segment.start();
+            int carried = 0;
+            while (position < segment.end()) {
+                if (carried == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                }
+                int want = (int) Math.min(buffer.length - carried, segment.end() - position);
+                int read = channel.read(ByteBuffer.wrap(buffer, carried, want), position);
+                if (read < 0) {
+                    throw new IOException(segment.file() + " was truncated while being read");
+                }
+                position += read;
+                int length = carried + read;
+                int complete = position == segment.end() ? length : lastIndexOf(buffer, length, (byte) '\n') + 1;
+                scanLines(buffer, complete, options, result);
+                carried = length - complete;
+                System.arraycopy(buffer, complete, buffer, 0, carried);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        result.bytes += segment.end() - segment.start();
+        return buffer;
+    }
+
+    /**
+     * Feeds the selected field of every line of {@code buffer[0, length)} to {@code result}; the last line
+     * may lack its newline.
+     */
+    private static void scanLines(byte[] buffer, int length, Options options, Result result) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            int newline = indexOf(buffer, lineStart, length, (byte) '\n');
+            int lineEnd = newline < 0 ? length : newline;
+            int end = lineEnd > lineStart && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            result.lines++;
+            int from = lineStart;
+            int to = end;
+            if (options.field >= 0) {
+                for (int f = 0; f < options.field && from <= end; f++) {
+                    int delimiter = indexOf(buffer, from, end, options.delimiter);
+                    from = delimiter < 0 ? end + 1 : delimiter + 1;
+                }
+                if (from <= end) {
+                    int delimiter = indexOf(buffer, from, end, options.delimiter);
+                    to = delimiter < 0 ? end : delimiter;
+                }
+            }
+            if (from < to) { // Lines without the field and empty values are skipped
+                result.distinct.addBytes(buffer, from, to - from);
+                if (options.topK > 0) {
+                    result.counts.addBytes(buffer, from, to - from, 1);
+                    result.topK.insert(buffer, from, to - from, DECODER);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private static int lastIndexOf(byte[] data, int to, byte value) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] data, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                options.files.add(Path.of(arg));
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--field" -> options.field = Integer.parseInt(value);
+                case "--delimiter" -> options.delimiter = parseDelimiter(value);
+                case "--top" -> options.topK = Integer.parseInt(value);
+                case "--precision" -> options.precision = Integer.parseInt(value);
+                case "--epsilon" -> options.epsilon = Double.parseDouble(value);
+                case "--delta" -> options.delta = Double.parseDouble(value);
+                case "--threads" -> options.threads = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.files.isEmpty()) {
+            throw new IllegalArgumentException("No input files");
+        }
+        if (options.field < -1 || options.topK < 0 || options.threads < 1) {
+            throw new IllegalArgumentException("--field and --top must be non-negative and --threads positive");
+        }
+        return options;
+    }
+
+    private static byte parseDelimiter(String value) {
+        String delimiter = switch (value) {
+            case "\\t", "tab" -> "\t";
+            case "space" -> " ";
+            default -> value;
+        };
+        if (delimiter.length() != 1 || delimiter.charAt(0) > 0x7F) {
+            throw new IllegalArgumentException("Delimiter must be a single ASCII character");
+        }
+        return (byte) delimiter.charAt(0);
+    }
+
+    static void report(Result result, Options options, long nanos, PrintStream out) {
+        out.printf("lines     %d%n", result.lines);
+        out.printf("distinct  %d (+/- %.1f%%)%n", result.distinct.estimate(), 104.0 / Math.sqrt(1 << options.precision));
+        if (options.topK > 0) {
+            out.printf("top %d (count is the Count-Min estimate, at most %d too high with probability %.3f)%n",
+                    options.topK, result.counts.getErrorBound(), 1 - options.delta);
+            for (Map.Entry<String, Integer> entry : result.topK.getTopK().entrySet()) {
+                out.printf("%12d  %s%n", result.counts.estimateCount(entry.getKey()), entry.getKey());
+            }
+        }
+        double seconds = nanos / 1e9;
+        out.printf("%.1f MB in %.2f s, %.1f MB/s%n", result.bytes / 1e6, seconds, result.bytes / 1e6 / seconds);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: SketchTool [--field N] [--delimiter C|tab|space] [--top K] [--precision B]");
+            System.err.println("                  [--epsilon E] [--delta D] [--threads N] FILE...");
+            System.exit(2);
+            return;
+        }
+        long start = System.nanoTime();
+        Result result = analyse(options);
+        report(result, options, System.nanoTime() - start, System.out);
+    }
+}
@@ -0,0 +1,65 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.util.stream.Collector;
+
+/**
+ * {@link Collector}s that build sketches from streams. On a parallel stream every worker fills its own
+ * partial sketch and the partials are merged pairwise as the fork-join tasks complete: Bloom filters by
+ * OR-ing their bits, HyperLogLogs by taking the register maximum and Count-Min Sketches by adding their
+ * tables. The result is the same as a sequential build.
+ * <p>
+ * Each partial sketch has the full size, so a parallel build temporarily needs one sketch per worker.
+ */
+public final class Sketches {
+
+    private Sketches() {
+    }
+
+    public static <T> Collector<T, ?, HyperLogLog<T>> toHyperLogLog(int b, Hasher hasher, Serializer<T> serializer) {
+        return Collector.of(
+                () -> new HyperLogLog<>(b, hasher, serializer),
+                HyperLogLog::add,
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                },
+                Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Uses the default hasher and serializer of {@link HyperLogLog#HyperLogLog(int)}.
+     */
+    public static <T> Collector<T, ?, HyperLogLog<T>> toHyperLogLog(int b) {
+        return toHyperLogLog(b, null, null);
+    }
+
+    public static <T> Collector<T, ?, BloomFilter<T>> toBloomFilter(double errorRate, long numElements,
+                                                                   Hasher hasher, Serializer<T> serializer) {
+        return Collector.of(
+                () -> new BloomFilter<>(errorRate, numElements, hasher, serializer),
+                BloomFilter::add,
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                },
+                Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Counts every stream element once.
+     */
+    public static <T> Collector<T, ?, CountMinSketch<T>> toCountMinSketch(double epsilon, double delta,
+                                                                         Hasher hasher, Serializer<T> serializer) {
+        return Collector.of(
+                () -> new CountMinSketch<>(epsilon, delta, hasher, serializer),
+                (sketch, item) -> sketch.add(item, 1),
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                },
+                Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+}
@@ -0,0 +1,138 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-Min Sketch over a sliding time window, kept as a ring of sub-sketches (slices) that each
+ * cover {@code window / slices} of time. When time moves past a slice boundary the oldest slice is
+ * cleared in place and reused, so rotation never allocates.
+ * <p>
+ * Estimates cover the current, partially filled slice plus the {@code slices - 1} previous ones,
+ * i.e. between {@code window - window / slices} and {@code window} of history. An estimate is the sum
+ * of the per-slice minimums: it never underestimates, and it exceeds the true windowed count by more
+ * than {@link #getErrorBound()} with probability at most {@code slices * delta}.
+ */
+public class SlidingWindowCountMinSketch<T> implements SketchMetrics {
+    private final CountMinSketch<T>[] slices;
+    private final long sliceMillis;
+    private final LongSupplier clock;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private final double epsilon;
+    private int current = 0;
+    private long currentEpoch;
+
+    /**
+     * @param clock current time in milliseconds; may be an event-time source instead of wall time
+     */
+    public SlidingWindowCountMinSketch(double epsilon, double delta, Duration window, int slices,
+                                       LongSupplier clock, Hasher hasher, Serializer<T> serializer) {
+        if (slices < 1) {
+            throw new IllegalArgumentException("At least one slice is required");
+        }
+        if (window.toMillis() < slices) {
+            throw new IllegalArgumentException("Window must be at least one millisecond per slice");
+        }
+        @SuppressWarnings("unchecked")
+        CountMinSketch<T>[] ring = (CountMinSketch<T>[]) new CountMinSketch<?>[slices];
+        for (int i = 0; i < slices; i++) {
+            ring[i] = new CountMinSketch<>(epsilon, delta, hasher, serializer);
+        }
+        this.slices = ring;
+        this.sliceMillis = window.toMillis() / slices;
+        this.clock = clock;
+        this.hasher = hasher;
+        this.serializer = serializer;
+        this.epsilon = epsilon;
+        this.currentEpoch = Math.floorDiv(clock.getAsLong(), sliceMillis);
+    }
+
+    public SlidingWindowCountMinSketch(double epsilon, double delta, Duration window, int slices,
+                                       Hasher hasher, Serializer<T> serializer) {
+        this(epsilon, delta, window, slices, System::currentTimeMillis, hasher, serializer);
+    }
+
+    private void rotate() {
+        long epoch = Math.floorDiv(clock.getAsLong(), sliceMillis);
+        if (epoch <= currentEpoch) {
+            return;
+        }
+        long steps = Math.min(epoch - currentEpoch, slices.length);
+        for (long s = 0; s < steps; s++) {
+            current = (current + 1) % slices.length;
+            slices[current].clear();
+        }
+        currentEpoch = epoch;
+    }
+
+    public void add(T item, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported.");
+        }
+        rotate();
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        slices[current].add(h1, h2, value);
+    }
+
+    public long estimateCount(T item) {
+        rotate();
+        byte[] data = serializer.serialize(item);
+        long h1 = hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED);
+        long h2 = hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED);
+        long sum = 0;
+        for (CountMinSketch<T> slice : slices) {
+            sum += slice.estimateCount(h1, h2);
+        }
+        return sum;
+    }
+
+    /**
+     * Total of all values added within the current window.
+     */
+    public long getTotalCount() {
+        rotate();
+        long total = 0;
+        for (CountMinSketch<T> slice : slices) {
+            total += slice.getTotalCount();
+        }
+        return total;
+    }
+
+    public long getErrorBound() {
+        return Math.round(epsilon * getTotalCount());
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        long bytes = MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(slices);
+        for (CountMinSketch<T> slice : slices) {
+            bytes += slice.memoryFootprintBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Reports the window totals; {@code currentSliceCount} shows how evenly traffic spreads over slices.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        long total = getTotalCount();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("slices", slices.length);
+        metrics.put("width", slices[0].getWidth());
+        metrics.put("totalCount", total);
+        metrics.put("currentSliceCount", slices[current].getTotalCount());
+        metrics.put("meanCounterValue", (double) total / slices[0].getWidth());
+        metrics.put("errorBound", Math.round(epsilon * total));
+        return metrics;
+    }
+
+}
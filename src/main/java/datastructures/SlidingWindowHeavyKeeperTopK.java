@@ -0,0 +1,86 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * HeavyKeeper top-k whose counts fade with time. Every {@code halfLife} all bucket and heap counts are
+ * halved in place, so an event that happened {@code t} ago contributes {@code 2^-floor(t / halfLife)}
+ * to its flow's count. Heavy hitters of an old window therefore drop out without a reset, and memory
+ * stays at {@code d * w} buckets plus the heap.
+ * <p>
+ * A half-life of about a third of the window of interest ranks flows mostly by their recent traffic;
+ * after 31 half-lives every count has reached zero.
+ */
+public class SlidingWindowHeavyKeeperTopK<T> implements SketchMetrics {
+    private static final int MAX_AGING_STEPS = 32; // counts are ints, 32 halvings clear them all
+
+    private final HeavyKeeperTopK<T> tracker;
+    private final long halfLifeMillis;
+    private final LongSupplier clock;
+    private long currentEpoch;
+    private long halvings = 0;
+
+    /**
+     * @param clock current time in milliseconds; may be an event-time source instead of wall time
+     */
+    public SlidingWindowHeavyKeeperTopK(int d, int w, int k, double b, Duration halfLife, LongSupplier clock,
+                                        Hasher hasher, Serializer<T> serializer) {
+        if (halfLife.toMillis() < 1) {
+            throw new IllegalArgumentException("Half-life must be at least one millisecond");
+        }
+        this.tracker = new HeavyKeeperTopK<>(d, w, k, b, hasher, serializer);
+        this.halfLifeMillis = halfLife.toMillis();
+        this.clock = clock;
+        this.currentEpoch = Math.floorDiv(clock.getAsLong(), halfLifeMillis);
+    }
+
+    public SlidingWindowHeavyKeeperTopK(int d, int w, int k, double b, Duration halfLife,
+                                        Hasher hasher, Serializer<T> serializer) {
+        this(d, w, k, b, halfLife, System::currentTimeMillis, hasher, serializer);
+    }
+
+    private void advance() {
+        long epoch = Math.floorDiv(clock.getAsLong(), halfLifeMillis);
+        if (epoch <= currentEpoch) {
+            return;
+        }
+        long steps = Math.min(epoch - currentEpoch, MAX_AGING_STEPS);
+        for (long s = 0; s < steps; s++) {
+            tracker.age();
+        }
+        halvings += steps;
+        currentEpoch = epoch;
+    }
+
+    public void insert(T flow) {
+        advance();
+        tracker.insert(flow);
+    }
+
+    /**
+     * Returns the tracked flows ordered by descending time-decayed count.
+     */
+    public Map<T, Integer> getTopK() {
+        advance();
+        return tracker.getTopK();
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + tracker.memoryFootprintBytes();
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        advance();
+        Map<String, Number> metrics = tracker.metrics();
+        metrics.put("halvings", halvings);
+        return metrics;
+    }
+
+}
@@ -0,0 +1,176 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * HyperLogLog over a sliding time window (LogLog-TSW). Instead of one maximum rank per register it keeps,
+ * for every register and rank, the last time an item with that rank was seen. The register value for a
+ * window is the largest rank seen within it, so {@link #estimate(Duration)} answers for any window up to
+ * the maximum in one pass over the table, without merging or allocating.
+ * <p>
+ * Items are hashed as in {@link HyperLogLog}, so over a window the estimate equals that of a
+ * {@code HyperLogLog} fed with the same items. Ranks above {@value #RANKS} are recorded as {@value #RANKS},
+ * which only matters beyond 2^31 distinct items per register. Memory is {@code 4 * RANKS + 1} bytes per
+ * register, fixed at construction.
+ * <p>
+ * Timestamps are stored as {@code int} ticks of one millisecond (coarser for windows over 2^29 ms) since a
+ * moving origin; the origin is advanced, and expired timestamps dropped, every 2^30 ticks.
+ */
+public class SlidingWindowHyperLogLog<T> implements SketchMetrics {
+    static final int RANKS = 32;
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MAX_WINDOW_TICKS = 1 << 29;
+    private static final int REBASE_TICKS = 1 << 30;
+
+    private final int[] lastSeen; // m registers of RANKS ticks; lastSeen[register * RANKS + rank - 1]
+    private final byte[] topRank; // highest rank ever recorded per register, where queries start scanning
+    private final int b;
+    private final int m;
+    private final double alphaMM;
+    private final long tickMillis;
+    private final int maxWindowTicks;
+    private final LongSupplier clock;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+    private long originMillis;
+
+    /**
+     * @param maxWindow longest window that can be queried
+     * @param clock     current time in milliseconds; may be an event-time source instead of wall time
+     */
+    public SlidingWindowHyperLogLog(int b, Duration maxWindow, LongSupplier clock, Hasher hasher,
+                                    Serializer<T> serializer) {
+        if (b < 4 || b > 16) {
+            throw new IllegalArgumentException("b must be between 4 and 16");
+        }
+        long windowMillis = maxWindow.toMillis();
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("Window must be at least one millisecond");
+        }
+        this.b = b;
+        this.m = 1 << b;
+        this.alphaMM = HyperLogLog.getAlphaMM(m);
+        this.tickMillis = Math.max(1, (windowMillis + MAX_WINDOW_TICKS - 1) / MAX_WINDOW_TICKS);
+        this.maxWindowTicks = (int) ((windowMillis + tickMillis - 1) / tickMillis);
+        this.lastSeen = new int[m * RANKS];
+        Arrays.fill(lastSeen, EMPTY);
+        this.topRank = new byte[m];
+        this.clock = clock;
+        this.hasher = hasher;
+        this.serializer = serializer;
+        this.originMillis = clock.getAsLong();
+    }
+
+    public SlidingWindowHyperLogLog(int b, Duration maxWindow, Hasher hasher, Serializer<T> serializer) {
+        this(b, maxWindow, System::currentTimeMillis, hasher, serializer);
+    }
+
+    /**
+     * Current time in ticks since the origin, advancing the origin first if it is too far behind.
+     */
+    private int now() {
+        long ticks = Math.floorDiv(clock.getAsLong() - originMillis, tickMillis);
+        if (ticks >= REBASE_TICKS) {
+            rebase(ticks - maxWindowTicks);
+            ticks -= ticks - maxWindowTicks;
+        }
+        // Clocks running far behind the origin are clamped; such items are outside every window anyway
+        return (int) Math.max(ticks, EMPTY + 1L);
+    }
+
+    /**
+     * Moves the origin {@code shift} ticks forward. Timestamps before the new origin are older than any
+     * window and are dropped.
+     */
+    private void rebase(long shift) {
+        for (int i = 0; i < lastSeen.length; i++) {
+            lastSeen[i] = lastSeen[i] >= shift ? (int) (lastSeen[i] - shift) : EMPTY;
+        }
+        originMillis += shift * tickMillis;
+    }
+
+    public void add(T item) {
+        byte[] data = serializer.serialize(item);
+        addHash(hasher.hash64(data, 0), now());
+    }
+
+    private void addHash(long hash, int now) {
+        int index = (int) (hash >>> (64 - b));
+        long remaining = hash << b;
+        int rank = Math.min(RANKS, Long.numberOfLeadingZeros(remaining) + 1);
+        int slot = index * RANKS + rank - 1;
+        // Out-of-order event times must not move a timestamp back
+        lastSeen[slot] = Math.max(lastSeen[slot], now);
+        if (rank > topRank[index]) {
+            topRank[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Estimated number of distinct items seen within the maximum window.
+     */
+    public long estimate() {
+        return estimate(maxWindowTicks);
+    }
+
+    /**
+     * Estimated number of distinct items seen within the last {@code window}, which is rounded up to whole
+     * ticks.
+     *
+     * @throws IllegalArgumentException if {@code window} is longer than the maximum window
+     */
+    public long estimate(Duration window) {
+        long ticks = (window.toMillis() + tickMillis - 1) / tickMillis;
+        if (ticks > maxWindowTicks || ticks < 0) {
+            throw new IllegalArgumentException("Window must be between 0 and the maximum window");
+        }
+        return estimate((int) ticks);
+    }
+
+    private long estimate(int windowTicks) {
+        // An item seen at time t is inside the window if now - t < windowTicks
+        long cutoff = (long) now() - windowTicks;
+        double sum = 0.0;
+        int zeros = 0;
+        for (int register = 0; register < m; register++) {
+            int rank = topRank[register];
+            int base = register * RANKS - 1;
+            while (rank > 0 && lastSeen[base + rank] <= cutoff) {
+                rank--;
+            }
+            sum += Double.longBitsToDouble((1023L - rank) << 52); // 2^-rank
+            if (rank == 0) zeros++;
+        }
+        return HyperLogLog.estimate(alphaMM, m, sum, zeros);
+    }
+
+    public Duration getMaxWindow() {
+        return Duration.ofMillis(maxWindowTicks * tickMillis);
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + MemoryFootprint.of(lastSeen) + MemoryFootprint.of(topRank);
+    }
+
+    /**
+     * Reports the configuration only. Expiry changes the registers without any update, so an estimate
+     * would need a scan of the table; call {@link #estimate(Duration)} for that.
+     */
+    @Override
+    public Map<String, Number> metrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("registers", m);
+        metrics.put("maxWindowMillis", maxWindowTicks * tickMillis);
+        metrics.put("tickMillis", tickMillis);
+        metrics.put("standardError", 1.04 / Math.sqrt(m));
+        return metrics;
+    }
+}
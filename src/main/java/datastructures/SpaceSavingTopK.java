@@ -0,0 +1,101 @@
+package datastructures;
+
+import hasher.Hasher;
+import serializer.Serializer;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SpaceSaving (Stream-Summary) top-k tracker. Uses only {@code k} counters and gives deterministic
+ * bounds: a reported count never underestimates and overestimates by at most {@code N / k}.
+ * <p>
+ * Items are identified by a 64-bit hash of their serialized form, which keys a
+ * {@link LongSpaceSavingTopK}; the items themselves are only kept for reporting.
+ */
+public class SpaceSavingTopK<T> implements SketchMetrics {
+    private final LongSpaceSavingTopK summary;
+    private final Object[] items;
+    private final Hasher hasher;
+    private final Serializer<T> serializer;
+
+    public SpaceSavingTopK(int k, Hasher hasher, Serializer<T> serializer) {
+        this.summary = new LongSpaceSavingTopK(k);
+        this.items = new Object[k];
+        this.hasher = hasher;
+        this.serializer = serializer;
+    }
+
+    private long fingerprint(T item) {
+        return hasher.hash64(serializer.serialize(item), HashSeed.PRIMARY_HASH_SEED);
+    }
+
+    public void add(T item) {
+        add(item, 1);
+    }
+
+    public void add(T item, long value) {
+        int slot = summary.addSlot(fingerprint(item), value);
+        items[slot] = item;
+    }
+
+    public long estimateCount(T item) {
+        return summary.estimateCount(fingerprint(item));
+    }
+
+    public long guaranteedCount(T item) {
+        return summary.guaranteedCount(fingerprint(item));
+    }
+
+    public long getTotalCount() {
+        return summary.getTotalCount();
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return MemoryFootprint.shallowSize(getClass()) + summary.memoryFootprintBytes() + MemoryFootprint.of(items);
+    }
+
+    @Override
+    public Map<String, Number> metrics() {
+        return summary.metrics();
+    }
+
+    /**
+     * Returns the tracked items ordered by descending count.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map.Entry<T, Long>> getTopK() {
+        int[] slots = summary.slotsDescending();
+        List<Map.Entry<T, Long>> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>((T) items[slot], summary.countAt(slot)));
+        }
+        return result;
+    }
+
+    /**
+     * Combines a summary built on another partition of the stream into this one. Both must use the
+     * same hasher so that equal items have equal fingerprints.
+     */
+    public void merge(SpaceSavingTopK<T> other) {
+        if (other.hasher.getClass() != hasher.getClass()) {
+            throw new IllegalArgumentException("Summaries use different hashers");
+        }
+        Map<Long, Object> byFingerprint = new HashMap<>();
+        for (int slot = 0; slot < other.summary.size(); slot++) {
+            byFingerprint.put(other.summary.keyAt(slot), other.items[slot]);
+        }
+        for (int slot = 0; slot < summary.size(); slot++) {
+            byFingerprint.put(summary.keyAt(slot), items[slot]);
+        }
+
+        summary.merge(other.summary);
+        for (int slot = 0; slot < summary.size(); slot++) {
+            items[slot] = byFingerprint.get(summary.keyAt(slot));
+        }
+    }
+}
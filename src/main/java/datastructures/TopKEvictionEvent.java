@@ -0,0 +1,39 @@
+package datastructures;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event committed when a top-k tracker evicts its smallest entry to admit a new one. Evictions can
+ * be frequent, so the event is disabled unless a recording enables it; while disabled the JIT removes
+ * the allocation, leaving a single branch.
+ */
+@Name("datastructures.TopKEviction")
+@Label("Top-K Eviction")
+@Category("Sketches")
+@Description("A top-k tracker replaced its smallest entry")
+@Enabled(false)
+final class TopKEvictionEvent extends Event {
+    @Label("Tracker")
+    String tracker;
+
+    @Label("Evicted Count")
+    long evictedCount;
+
+    @Label("Admitted Count")
+    long admittedCount;
+
+    static void emit(Class<?> tracker, long evictedCount, long admittedCount) {
+        TopKEvictionEvent event = new TopKEvictionEvent();
+        if (event.isEnabled()) {
+            event.tracker = tracker.getSimpleName();
+            event.evictedCount = evictedCount;
+            event.admittedCount = admittedCount;
+            event.commit();
+        }
+    }
+}
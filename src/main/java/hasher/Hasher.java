@@ -1,6 +1,33 @@
 package hasher;
 
+import java.util.Arrays;
+
 @FunctionalInterface
 public interface Hasher {
     long hash64(byte[] data, long seed);
+
+    /**
+     * Hashes {@code length} bytes of {@code data} starting at {@code offset}, with the same result as
+     * hashing a copy of that range. The default makes the copy; implementations should override it.
+     */
+    default long hash64(byte[] data, int offset, int length, long seed) {
+        return hash64(Arrays.copyOfRange(data, offset, offset + length), seed);
+    }
+
+    /**
+     * Computes a 128-bit hash of {@code data}, writing the low 64 bits to {@code dest[0]} and the high
+     * 64 bits to {@code dest[1]}. Implementations that natively produce 128 bits should override this;
+     * the default combines two 64-bit hashes with different seeds.
+     */
+    default void hash128(byte[] data, long seed, long[] dest) {
+        dest[0] = hash64(data, seed);
+        dest[1] = hash64(data, ~seed);
+    }
+
+    /**
+     * Range variant of {@link #hash128(byte[], long, long[])}.
+     */
+    default void hash128(byte[] data, int offset, int length, long seed, long[] dest) {
+        hash128(Arrays.copyOfRange(data, offset, offset + length), seed, dest);
+    }
 }
@@ -6,6 +6,16 @@ import java.nio.ByteOrder;
 public class MurmurHash3 implements Hasher {
 
     public long hash64(byte[] data, long seed) {
+        return hash(data, seed, null);
+    }
+
+    @Override
+    public void hash128(byte[] data, long seed, long[] dest) {
+        hash(data, seed, dest);
+    }
+
+    // Full MurmurHash3 x64 128-bit; returns the low half and stores both halves in dest when given.
+    private long hash(byte[] data, long seed, long[] dest) {
         ByteBuffer buffer = ByteBuffer.wrap(data);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
 
@@ -89,10 +99,18 @@ public class MurmurHash3 implements Hasher {
 
         h1 += h2;
 
+        if (dest != null) {
+            dest[0] = h1;
+            dest[1] = h2 + h1;
+        }
         return h1;
     }
 
-    private long fmix64(long k) {
+    /**
+     * MurmurHash3 finalizer: a bijective 64-bit mixer with full avalanche, usable on its own to hash
+     * keys that already are 64-bit values.
+     */
+    public static long fmix64(long k) {
         k ^= (k >>> 33);
         k *= 0xff51afd7ed558ccdL;
         k ^= (k >>> 33);
@@ -0,0 +1,87 @@
+package hasher;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * wyhash (final version 4) with its default secret. Keys of up to 16 bytes are hashed with two
+ * overlapping reads and a single 128-bit multiply, which makes it the fastest hasher here for short
+ * keys. Inputs are read with little-endian {@link VarHandle} views.
+ */
+public class WyHash implements Hasher {
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long SECRET_0 = 0xa0761d6478bd642fL;
+    private static final long SECRET_1 = 0xe7037ed1a0b428dbL;
+    private static final long SECRET_2 = 0x8ebc6af09c88c6e3L;
+    private static final long SECRET_3 = 0x589965cc75374cc3L;
+
+    private static long getLong(byte[] b, int offset) {
+        return (long) LONG.get(b, offset);
+    }
+
+    private static long getInt(byte[] b, int offset) {
+        return (int) INT.get(b, offset) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public long hash64(byte[] data, long seed) {
+        return hash64(data, 0, data.length, seed);
+    }
+
+    @Override
+    public long hash64(byte[] data, int offset, int length, long seed) {
+        seed ^= mix(seed ^ SECRET_0, SECRET_1);
+        long a;
+        long b;
+        if (length <= 16) {
+            if (length >= 4) {
+                int shift = (length >>> 3) << 2;
+                a = (getInt(data, offset) << 32) | getInt(data, offset + shift);
+                b = (getInt(data, offset + length - 4) << 32) | getInt(data, offset + length - 4 - shift);
+            } else if (length > 0) {
+                a = ((data[offset] & 0xFFL) << 16) | ((data[offset + (length >>> 1)] & 0xFFL) << 8)
+                        | (data[offset + length - 1] & 0xFFL);
+                b = 0;
+            } else {
+                a = 0;
+                b = 0;
+            }
+        } else {
+            int p = offset;
+            int i = length;
+            if (i > 48) {
+                long see1 = seed;
+                long see2 = seed;
+                do {
+                    seed = mix(getLong(data, p) ^ SECRET_1, getLong(data, p + 8) ^ seed);
+                    see1 = mix(getLong(data, p + 16) ^ SECRET_2, getLong(data, p + 24) ^ see1);
+                    see2 = mix(getLong(data, p + 32) ^ SECRET_3, getLong(data, p + 40) ^ see2);
+                    p += 48;
+                    i -= 48;
+                } while (i > 48);
+                seed ^= see1 ^ see2;
+            }
+            while (i > 16) {
+                seed = mix(getLong(data, p) ^ SECRET_1, getLong(data, p + 8) ^ seed);
+                p += 16;
+                i -= 16;
+            }
+            a = getLong(data, p + i - 16);
+            b = getLong(data, p + i - 8);
+        }
+        a ^= SECRET_1;
+        b ^= seed;
+        long lo = a * b;
+        long hi = Math.unsignedMultiplyHigh(a, b);
+        return mix(lo ^ SECRET_0 ^ length, hi ^ SECRET_1);
+    }
+
+    // Folds the 128-bit product of a and b into 64 bits
+    private static long mix(long a, long b) {
+        return a * b ^ Math.unsignedMultiplyHigh(a, b);
+    }
+}
@@ -0,0 +1,366 @@
+package hasher;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * XXH3 (xxHash 0.8) with seed. {@link #hash64} is XXH3-64 and {@link #hash128} is XXH3-128; the low half
+ * of the 128-bit hash is not the 64-bit hash. Inputs are read with little-endian {@link VarHandle}
+ * views, and inputs of up to 240 bytes, which covers most sketch keys, take allocation-free short paths
+ * that never enter the striped loop.
+ */
+public class XXH3 implements Hasher {
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long PRIME32_1 = 0x9E3779B1L;
+    private static final long PRIME32_2 = 0x85EBCA77L;
+    private static final long PRIME32_3 = 0xC2B2AE3DL;
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+    private static final long PRIME_MX1 = 0x165667919E3779F9L;
+    private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+    private static final int SECRET_SIZE = 192;
+    private static final int STRIPE_LEN = 64;
+    private static final int STRIPES_PER_BLOCK = (SECRET_SIZE - STRIPE_LEN) / 8;
+    private static final int BLOCK_LEN = STRIPE_LEN * STRIPES_PER_BLOCK;
+
+    private static final byte[] DEFAULT_SECRET = {
+            (byte) 0xb8, (byte) 0xfe, (byte) 0x6c, (byte) 0x39, (byte) 0x23, (byte) 0xa4, (byte) 0x4b, (byte) 0xbe,
+            (byte) 0x7c, (byte) 0x01, (byte) 0x81, (byte) 0x2c, (byte) 0xf7, (byte) 0x21, (byte) 0xad, (byte) 0x1c,
+            (byte) 0xde, (byte) 0xd4, (byte) 0x6d, (byte) 0xe9, (byte) 0x83, (byte) 0x90, (byte) 0x97, (byte) 0xdb,
+            (byte) 0x72, (byte) 0x40, (byte) 0xa4, (byte) 0xa4, (byte) 0xb7, (byte) 0xb3, (byte) 0x67, (byte) 0x1f,
+            (byte) 0xcb, (byte) 0x79, (byte) 0xe6, (byte) 0x4e, (byte) 0xcc, (byte) 0xc0, (byte) 0xe5, (byte) 0x78,
+            (byte) 0x82, (byte) 0x5a, (byte) 0xd0, (byte) 0x7d, (byte) 0xcc, (byte) 0xff, (byte) 0x72, (byte) 0x21,
+            (byte) 0xb8, (byte) 0x08, (byte) 0x46, (byte) 0x74, (byte) 0xf7, (byte) 0x43, (byte) 0x24, (byte) 0x8e,
+            (byte) 0xe0, (byte) 0x35, (byte) 0x90, (byte) 0xe6, (byte) 0x81, (byte) 0x3a, (byte) 0x26, (byte) 0x4c,
+            (byte) 0x3c, (byte) 0x28, (byte) 0x52, (byte) 0xbb, (byte) 0x91, (byte) 0xc3, (byte) 0x00, (byte) 0xcb,
+            (byte) 0x88, (byte) 0xd0, (byte) 0x65, (byte) 0x8b, (byte) 0x1b, (byte) 0x53, (byte) 0x2e, (byte) 0xa3,
+            (byte) 0x71, (byte) 0x64, (byte) 0x48, (byte) 0x97, (byte) 0xa2, (byte) 0x0d, (byte) 0xf9, (byte) 0x4e,
+            (byte) 0x38, (byte) 0x19, (byte) 0xef, (byte) 0x46, (byte) 0xa9, (byte) 0xde, (byte) 0xac, (byte) 0xd8,
+            (byte) 0xa8, (byte) 0xfa, (byte) 0x76, (byte) 0x3f, (byte) 0xe3, (byte) 0x9c, (byte) 0x34, (byte) 0x3f,
+            (byte) 0xf9, (byte) 0xdc, (byte) 0xbb, (byte) 0xc7, (byte) 0xc7, (byte) 0x0b, (byte) 0x4f, (byte) 0x1d,
+            (byte) 0x8a, (byte) 0x51, (byte) 0xe0, (byte) 0x4b, (byte) 0xcd, (byte) 0xb4, (byte) 0x59, (byte) 0x31,
+            (byte) 0xc8, (byte) 0x9f, (byte) 0x7e, (byte) 0xc9, (byte) 0xd9, (byte) 0x78, (byte) 0x73, (byte) 0x64,
+            (byte) 0xea, (byte) 0xc5, (byte) 0xac, (byte) 0x83, (byte) 0x34, (byte) 0xd3, (byte) 0xeb, (byte) 0xc3,
+            (byte) 0xc5, (byte) 0x81, (byte) 0xa0, (byte) 0xff, (byte) 0xfa, (byte) 0x13, (byte) 0x63, (byte) 0xeb,
+            (byte) 0x17, (byte) 0x0d, (byte) 0xdd, (byte) 0x51, (byte) 0xb7, (byte) 0xf0, (byte) 0xda, (byte) 0x49,
+            (byte) 0xd3, (byte) 0x16, (byte) 0x55, (byte) 0x26, (byte) 0x29, (byte) 0xd4, (byte) 0x68, (byte) 0x9e,
+            (byte) 0x2b, (byte) 0x16, (byte) 0xbe, (byte) 0x58, (byte) 0x7d, (byte) 0x47, (byte) 0xa1, (byte) 0xfc,
+            (byte) 0x8f, (byte) 0xf8, (byte) 0xb8, (byte) 0xd1, (byte) 0x7a, (byte) 0xd0, (byte) 0x31, (byte) 0xce,
+            (byte) 0x45, (byte) 0xcb, (byte) 0x3a, (byte) 0x8f, (byte) 0x95, (byte) 0x16, (byte) 0x04, (byte) 0x28,
+            (byte) 0xaf, (byte) 0xd7, (byte) 0xfb, (byte) 0xca, (byte) 0xbb, (byte) 0x4b, (byte) 0x40, (byte) 0x7e,
+    };
+
+    // Seeded secret for inputs above 240 bytes, derived from the last seed used. Racing threads may
+    // both derive it; the holder is immutable, so either result is correct.
+    private record SeededSecret(long seed, byte[] secret) {
+    }
+
+    private volatile SeededSecret seededSecret = new SeededSecret(0, DEFAULT_SECRET);
+
+    private static long getLong(byte[] b, int offset) {
+        return (long) LONG.get(b, offset);
+    }
+
+    private static long getInt(byte[] b, int offset) {
+        return (int) INT.get(b, offset) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public long hash64(byte[] data, long seed) {
+        return hash64(data, 0, data.length, seed);
+    }
+
+    @Override
+    public long hash64(byte[] data, int offset, int length, long seed) {
+        byte[] s = DEFAULT_SECRET;
+        if (length <= 16) {
+            if (length > 8) {
+                long bitflip1 = (getLong(s, 24) ^ getLong(s, 32)) + seed;
+                long bitflip2 = (getLong(s, 40) ^ getLong(s, 48)) - seed;
+                long lo = getLong(data, offset) ^ bitflip1;
+                long hi = getLong(data, offset + length - 8) ^ bitflip2;
+                long acc = length + Long.reverseBytes(lo) + hi + mulFold64(lo, hi);
+                return avalanche(acc);
+            }
+            if (length >= 4) {
+                seed ^= (long) Integer.reverseBytes((int) seed) << 32;
+                long input1 = getInt(data, offset);
+                long input2 = getInt(data, offset + length - 4);
+                long bitflip = (getLong(s, 8) ^ getLong(s, 16)) - seed;
+                long keyed = (input2 + (input1 << 32)) ^ bitflip;
+                return rrmxmx(keyed, length);
+            }
+            if (length > 0) {
+                int c1 = data[offset] & 0xFF;
+                int c2 = data[offset + (length >> 1)] & 0xFF;
+                int c3 = data[offset + length - 1] & 0xFF;
+                long combined = ((c1 << 16) | (c2 << 24) | c3 | (length << 8)) & 0xFFFFFFFFL;
+                long bitflip = (getInt(s, 0) ^ getInt(s, 4)) + seed;
+                return xxh64Avalanche(combined ^ bitflip);
+            }
+            return xxh64Avalanche(seed ^ getLong(s, 56) ^ getLong(s, 64));
+        }
+        if (length <= 128) {
+            long acc = length * PRIME64_1;
+            if (length > 32) {
+                if (length > 64) {
+                    if (length > 96) {
+                        acc += mix16B(data, offset + 48, s, 96, seed);
+                        acc += mix16B(data, offset + length - 64, s, 112, seed);
+                    }
+                    acc += mix16B(data, offset + 32, s, 64, seed);
+                    acc += mix16B(data, offset + length - 48, s, 80, seed);
+                }
+                acc += mix16B(data, offset + 16, s, 32, seed);
+                acc += mix16B(data, offset + length - 32, s, 48, seed);
+            }
+            acc += mix16B(data, offset, s, 0, seed);
+            acc += mix16B(data, offset + length - 16, s, 16, seed);
+            return avalanche(acc);
+        }
+        if (length <= 240) {
+            long acc = length * PRIME64_1;
+            int rounds = length >> 4;
+            for (int i = 0; i < 8; i++) {
+                acc += mix16B(data, offset + 16 * i, s, 16 * i, seed);
+            }
+            acc = avalanche(acc);
+            for (int i = 8; i < rounds; i++) {
+                acc += mix16B(data, offset + 16 * i, s, 16 * (i - 8) + 3, seed);
+            }
+            acc += mix16B(data, offset + length - 16, s, 136 - 17, seed);
+            return avalanche(acc);
+        }
+        byte[] secret = secretFor(seed);
+        long[] acc = accumulateLong(data, offset, length, secret);
+        return mergeAccs(acc, secret, 11, length * PRIME64_1);
+    }
+
+    @Override
+    public void hash128(byte[] data, long seed, long[] dest) {
+        hash128(data, 0, data.length, seed, dest);
+    }
+
+    @Override
+    public void hash128(byte[] data, int offset, int length, long seed, long[] dest) {
+        byte[] s = DEFAULT_SECRET;
+        if (length <= 16) {
+            if (length > 8) {
+                long bitflipl = (getLong(s, 32) ^ getLong(s, 40)) - seed;
+                long bitfliph = (getLong(s, 48) ^ getLong(s, 56)) + seed;
+                long inputLo = getLong(data, offset);
+                long inputHi = getLong(data, offset + length - 8);
+                long m = inputLo ^ inputHi ^ bitflipl;
+                long mLo = m * PRIME64_1;
+                long mHi = Math.unsignedMultiplyHigh(m, PRIME64_1);
+                mLo += (long) (length - 1) << 54;
+                inputHi ^= bitfliph;
+                mHi += inputHi + (inputHi & 0xFFFFFFFFL) * (PRIME32_2 - 1);
+                mLo ^= Long.reverseBytes(mHi);
+                long hLo = mLo * PRIME64_2;
+                long hHi = Math.unsignedMultiplyHigh(mLo, PRIME64_2) + mHi * PRIME64_2;
+                dest[0] = avalanche(hLo);
+                dest[1] = avalanche(hHi);
+                return;
+            }
+            if (length >= 4) {
+                seed ^= (long) Integer.reverseBytes((int) seed) << 32;
+                long inputLo = getInt(data, offset);
+                long inputHi = getInt(data, offset + length - 4);
+                long bitflip = (getLong(s, 16) ^ getLong(s, 24)) + seed;
+                long keyed = (inputLo + (inputHi << 32)) ^ bitflip;
+                long multiplier = PRIME64_1 + ((long) length << 2);
+                long mLo = keyed * multiplier;
+                long mHi = Math.unsignedMultiplyHigh(keyed, multiplier);
+                mHi += mLo << 1;
+                mLo ^= mHi >>> 3;
+                mLo ^= mLo >>> 35;
+                mLo *= PRIME_MX2;
+                mLo ^= mLo >>> 28;
+                dest[0] = mLo;
+                dest[1] = avalanche(mHi);
+                return;
+            }
+            if (length > 0) {
+                int c1 = data[offset] & 0xFF;
+                int c2 = data[offset + (length >> 1)] & 0xFF;
+                int c3 = data[offset + length - 1] & 0xFF;
+                int combinedL = (c1 << 16) | (c2 << 24) | c3 | (length << 8);
+                int combinedH = Integer.rotateLeft(Integer.reverseBytes(combinedL), 13);
+                long bitflipl = (getInt(s, 0) ^ getInt(s, 4)) + seed;
+                long bitfliph = (getInt(s, 8) ^ getInt(s, 12)) - seed;
+                dest[0] = xxh64Avalanche((combinedL & 0xFFFFFFFFL) ^ bitflipl);
+                dest[1] = xxh64Avalanche((combinedH & 0xFFFFFFFFL) ^ bitfliph);
+                return;
+            }
+            dest[0] = xxh64Avalanche(seed ^ getLong(s, 64) ^ getLong(s, 72));
+            dest[1] = xxh64Avalanche(seed ^ getLong(s, 80) ^ getLong(s, 88));
+            return;
+        }
+        if (length <= 240) {
+            long accLo = length * PRIME64_1;
+            long accHi = 0;
+            if (length <= 128) {
+                if (length > 32) {
+                    if (length > 64) {
+                        if (length > 96) {
+                            accLo += mix16B(data, offset + 48, s, 96, seed);
+                            accLo ^= getLong(data, offset + length - 64) + getLong(data, offset + length - 56);
+                            accHi += mix16B(data, offset + length - 64, s, 112, seed);
+                            accHi ^= getLong(data, offset + 48) + getLong(data, offset + 56);
+                        }
+                        accLo += mix16B(data, offset + 32, s, 64, seed);
+                        accLo ^= getLong(data, offset + length - 48) + getLong(data, offset + length - 40);
+                        accHi += mix16B(data, offset + length - 48, s, 80, seed);
+                        accHi ^= getLong(data, offset + 32) + getLong(data, offset + 40);
+                    }
+                    accLo += mix16B(data, offset + 16, s, 32, seed);
+                    accLo ^= getLong(data, offset + length - 32) + getLong(data, offset + length - 24);
+                    accHi += mix16B(data, offset + length - 32, s, 48, seed);
+                    accHi ^= getLong(data, offset + 16) + getLong(data, offset + 24);
+                }
+                accLo += mix16B(data, offset, s, 0, seed);
+                accLo ^= getLong(data, offset + length - 16) + getLong(data, offset + length - 8);
+                accHi += mix16B(data, offset + length - 16, s, 16, seed);
+                accHi ^= getLong(data, offset) + getLong(data, offset + 8);
+            } else {
+                int rounds = length >> 5;
+                for (int i = 0; i < 4; i++) {
+                    int in = offset + 32 * i;
+                    accLo += mix16B(data, in, s, 32 * i, seed);
+                    accLo ^= getLong(data, in + 16) + getLong(data, in + 24);
+                    accHi += mix16B(data, in + 16, s, 32 * i + 16, seed);
+                    accHi ^= getLong(data, in) + getLong(data, in + 8);
+                }
+                accLo = avalanche(accLo);
+                accHi = avalanche(accHi);
+                for (int i = 4; i < rounds; i++) {
+                    int in = offset + 32 * i;
+                    int secretOffset = 3 + 32 * (i - 4);
+                    accLo += mix16B(data, in, s, secretOffset, seed);
+                    accLo ^= getLong(data, in + 16) + getLong(data, in + 24);
+                    accHi += mix16B(data, in + 16, s, secretOffset + 16, seed);
+                    accHi ^= getLong(data, in) + getLong(data, in + 8);
+                }
+                // Last 32 bytes, read in reverse order with the negated seed
+                int in1 = offset + length - 16;
+                int in2 = offset + length - 32;
+                accLo += mix16B(data, in1, s, 136 - 17 - 16, -seed);
+                accLo ^= getLong(data, in2) + getLong(data, in2 + 8);
+                accHi += mix16B(data, in2, s, 136 - 17, -seed);
+                accHi ^= getLong(data, in1) + getLong(data, in1 + 8);
+            }
+            long hLo = accLo + accHi;
+            long hHi = accLo * PRIME64_1 + accHi * PRIME64_4 + (length - seed) * PRIME64_2;
+            dest[0] = avalanche(hLo);
+            dest[1] = -avalanche(hHi);
+            return;
+        }
+        byte[] secret = secretFor(seed);
+        long[] acc = accumulateLong(data, offset, length, secret);
+        dest[0] = mergeAccs(acc, secret, 11, length * PRIME64_1);
+        dest[1] = mergeAccs(acc, secret, SECRET_SIZE - STRIPE_LEN - 11, ~(length * PRIME64_2));
+    }
+
+    private byte[] secretFor(long seed) {
+        SeededSecret cached = seededSecret;
+        if (cached.seed() == seed) {
+            return cached.secret();
+        }
+        byte[] secret = new byte[SECRET_SIZE];
+        for (int i = 0; i < SECRET_SIZE; i += 16) {
+            LONG.set(secret, i, getLong(DEFAULT_SECRET, i) + seed);
+            LONG.set(secret, i + 8, getLong(DEFAULT_SECRET, i + 8) - seed);
+        }
+        seededSecret = new SeededSecret(seed, secret);
+        return secret;
+    }
+
+    // Striped loop for inputs above 240 bytes: eight lanes accumulated stripe by stripe, scrambled
+    // after every block.
+    private static long[] accumulateLong(byte[] data, int offset, int length, byte[] secret) {
+        long[] acc = {PRIME32_3, PRIME64_1, PRIME64_2, PRIME64_3, PRIME64_4, PRIME32_2, PRIME64_5, PRIME32_1};
+        int blocks = (length - 1) / BLOCK_LEN;
+        for (int n = 0; n < blocks; n++) {
+            int block = offset + n * BLOCK_LEN;
+            for (int stripe = 0; stripe < STRIPES_PER_BLOCK; stripe++) {
+                accumulate512(acc, data, block + stripe * STRIPE_LEN, secret, stripe * 8);
+            }
+            scramble(acc, secret, SECRET_SIZE - STRIPE_LEN);
+        }
+        int stripes = ((length - 1) - BLOCK_LEN * blocks) / STRIPE_LEN;
+        int block = offset + blocks * BLOCK_LEN;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            accumulate512(acc, data, block + stripe * STRIPE_LEN, secret, stripe * 8);
+        }
+        accumulate512(acc, data, offset + length - STRIPE_LEN, secret, SECRET_SIZE - STRIPE_LEN - 7);
+        return acc;
+    }
+
+    private static void accumulate512(long[] acc, byte[] data, int in, byte[] secret, int secretOffset) {
+        for (int i = 0; i < 8; i++) {
+            long value = getLong(data, in + 8 * i);
+            long key = value ^ getLong(secret, secretOffset + 8 * i);
+            acc[i ^ 1] += value;
+            acc[i] += (key & 0xFFFFFFFFL) * (key >>> 32);
+        }
+    }
+
+    private static void scramble(long[] acc, byte[] secret, int secretOffset) {
+        for (int i = 0; i < 8; i++) {
+            long a = acc[i];
+            a ^= a >>> 47;
+            a ^= getLong(secret, secretOffset + 8 * i);
+            acc[i] = a * PRIME32_1;
+        }
+    }
+
+    private static long mergeAccs(long[] acc, byte[] secret, int secretOffset, long start) {
+        long result = start;
+        for (int i = 0; i < 4; i++) {
+            int s = secretOffset + 16 * i;
+            result += mulFold64(acc[2 * i] ^ getLong(secret, s), acc[2 * i + 1] ^ getLong(secret, s + 8));
+        }
+        return avalanche(result);
+    }
+
+    private static long mix16B(byte[] data, int in, byte[] secret, int secretOffset, long seed) {
+        long lo = getLong(data, in);
+        long hi = getLong(data, in + 8);
+        return mulFold64(lo ^ (getLong(secret, secretOffset) + seed), hi ^ (getLong(secret, secretOffset + 8) - seed));
+    }
+
+    private static long mulFold64(long a, long b) {
+        return a * b ^ Math.unsignedMultiplyHigh(a, b);
+    }
+
+    private static long avalanche(long h) {
+        h ^= h >>> 37;
+        h *= PRIME_MX1;
+        return h ^ (h >>> 32);
+    }
+
+    private static long xxh64Avalanche(long h) {
+        h ^= h >>> 33;
+        h *= PRIME64_2;
+        h ^= h >>> 29;
+        h *= PRIME64_3;
+        return h ^ (h >>> 32);
+    }
+
+    private static long rrmxmx(long h, int length) {
+        h ^= Long.rotateLeft(h, 49) ^ Long.rotateLeft(h, 24);
+        h *= PRIME_MX2;
+        h ^= (h >>> 35) + length;
+        h *= PRIME_MX2;
+        return h ^ (h >>> 28);
+    }
+}
@@ -165,6 +165,11 @@ public class MurmurHash3Test {
 
         assertEquals(expected.getLeastSignificantBits(), actual,
                 message + " - Hash mismatch");
+
+        long[] actual128 = new long[2];
+        myHasher.hash128(input, seed, actual128);
+        assertEquals(expected.getLeastSignificantBits(), actual128[0], message + " - 128-bit low half mismatch");
+        assertEquals(expected.getMostSignificantBits(), actual128[1], message + " - 128-bit high half mismatch");
     }
 
     private byte[] createTestData(int length) {
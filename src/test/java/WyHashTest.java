@@ -0,0 +1,57 @@
+import com.dynatrace.hash4j.hashing.Hashing;
+import hasher.MurmurHash3;
+import hasher.WyHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class WyHashTest {
+
+    private final WyHash myHasher = new WyHash();
+
+    @Test
+    void testEveryLengthUpToLongInputs() {
+        // Covers the 0-3, 4-16, 17-48 byte paths and the three-lane loop
+        Random random = new Random(12345);
+        for (int length = 0; length <= 1000; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertHashMatches(data, 0, "Length: " + length);
+            assertHashMatches(data, random.nextLong(), "Seeded length: " + length);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 42, -1, 0xDEADBEEFL, 0xBAADF00DL, Long.MAX_VALUE, Long.MIN_VALUE})
+    void testDifferentSeeds(long seed) {
+        for (String s : new String[]{"", "a", "abcd", "hello world", "The quick brown fox jumps over the lazy dog"}) {
+            assertHashMatches(s.getBytes(StandardCharsets.UTF_8), seed, "Seed: " + seed + ", input: " + s);
+        }
+    }
+
+    @Test
+    void testRangeMatchesCopy() {
+        Random random = new Random(7);
+        byte[] buffer = new byte[512];
+        random.nextBytes(buffer);
+        for (int length = 0; length <= 300; length += 3) {
+            int offset = random.nextInt(buffer.length - length + 1);
+            byte[] copy = Arrays.copyOfRange(buffer, offset, offset + length);
+            assertEquals(myHasher.hash64(copy, 99), myHasher.hash64(buffer, offset, length, 99));
+            // Hashers without a native range path fall back to hashing a copy
+            assertEquals(new MurmurHash3().hash64(copy, 99), new MurmurHash3().hash64(buffer, offset, length, 99));
+        }
+    }
+
+    private void assertHashMatches(byte[] input, long seed, String message) {
+        assertEquals(Hashing.wyhashFinal4(seed).hashBytesToLong(input), myHasher.hash64(input, seed),
+                message + " - Hash mismatch");
+    }
+}
@@ -0,0 +1,69 @@
+import com.dynatrace.hash4j.hashing.HashValue128;
+import com.dynatrace.hash4j.hashing.Hashing;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class XXH3Test {
+
+    private final XXH3 myHasher = new XXH3();
+
+    @Test
+    void testEveryLengthUpToSeveralBlocks() {
+        // Covers each short-key path, the 17-128 and 129-240 byte paths, and the striped loop with
+        // full and partial blocks
+        Random random = new Random(12345);
+        for (int length = 0; length <= 3000; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertHashMatches(data, 0, "Length: " + length);
+            assertHashMatches(data, random.nextLong(), "Seeded length: " + length);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 42, -1, 0xDEADBEEFL, 0xBAADF00DL, Long.MAX_VALUE, Long.MIN_VALUE})
+    void testDifferentSeeds(long seed) {
+        for (String s : new String[]{"", "a", "abcd", "hello world", "The quick brown fox jumps over the lazy dog"}) {
+            assertHashMatches(s.getBytes(StandardCharsets.UTF_8), seed, "Seed: " + seed + ", input: " + s);
+        }
+        assertHashMatches(new byte[1000], seed, "Seed: " + seed + ", 1000 zero bytes");
+    }
+
+    @Test
+    void testRangeMatchesCopy() {
+        Random random = new Random(7);
+        byte[] buffer = new byte[512];
+        random.nextBytes(buffer);
+        long[] expected = new long[2];
+        long[] actual = new long[2];
+        for (int length = 0; length <= 300; length += 3) {
+            int offset = random.nextInt(buffer.length - length + 1);
+            byte[] copy = Arrays.copyOfRange(buffer, offset, offset + length);
+            assertEquals(myHasher.hash64(copy, 99), myHasher.hash64(buffer, offset, length, 99));
+            myHasher.hash128(copy, 99, expected);
+            myHasher.hash128(buffer, offset, length, 99, actual);
+            assertEquals(expected[0], actual[0]);
+            assertEquals(expected[1], actual[1]);
+        }
+    }
+
+    private void assertHashMatches(byte[] input, long seed, String message) {
+        assertEquals(Hashing.xxh3_64(seed).hashBytesToLong(input), myHasher.hash64(input, seed),
+                message + " - 64-bit hash mismatch");
+
+        HashValue128 expected = Hashing.xxh3_128(seed).hashBytesTo128Bits(input);
+        long[] actual128 = new long[2];
+        myHasher.hash128(input, seed, actual128);
+        assertEquals(expected.getLeastSignificantBits(), actual128[0], message + " - 128-bit low half mismatch");
+        assertEquals(expected.getMostSignificantBits(), actual128[1], message + " - 128-bit high half mismatch");
+    }
+}
@@ -1,3 +1,5 @@
+package datastructures;
+
 import hasher.Hasher;
 import hasher.MurmurHash3;
 import org.junit.jupiter.api.Test;
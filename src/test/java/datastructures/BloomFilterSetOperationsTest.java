@@ -0,0 +1,84 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterSetOperationsTest {
+    private final Hasher hasher = new XXH3();
+    private final Serializer<String> serializer = new StringSerializer(StandardCharsets.UTF_8);
+
+    private BloomFilter<String> filterOf(int from, int to) {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 100_000, hasher, serializer);
+        for (int i = from; i < to; i++) {
+            filter.add("item" + i);
+        }
+        return filter;
+    }
+
+    @Test
+    public void testUnionEqualsFilterOfAllItems() {
+        BloomFilter<String> shard = filterOf(0, 30_000);
+        shard.union(filterOf(30_000, 60_000));
+        BloomFilter<String> all = filterOf(0, 60_000);
+        assertEquals(all.bitSet, shard.bitSet);
+        assertEquals(all.bitsSetCount, shard.bitsSetCount);
+    }
+
+    @Test
+    public void testIntersectionKeepsCommonItems() {
+        BloomFilter<String> left = filterOf(0, 40_000);
+        BloomFilter<String> right = filterOf(20_000, 60_000);
+        BitSet expected = (BitSet) left.bitSet.clone();
+        expected.and(right.bitSet);
+
+        left.intersect(right);
+        assertEquals(expected, left.bitSet);
+        assertEquals(expected.cardinality(), left.bitsSetCount);
+        for (int i = 20_000; i < 40_000; i++) {
+            assertTrue(left.contains("item" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 60_000; i < 70_000; i++) {
+            if (left.contains("item" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 10_000 * 0.01, "false positives " + falsePositives);
+    }
+
+    @Test
+    public void testCardinalityTracksDistinctItems() {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 100_000, hasher, serializer);
+        assertEquals(0, filter.cardinality());
+        for (int n = 1; n <= 150_000; n++) {
+            filter.add("item" + n);
+            filter.add("item" + n / 2); // duplicates do not count
+            if (n % 25_000 == 0) {
+                assertEquals(n, filter.cardinality(), n * 0.02, "after " + n + " items");
+            }
+        }
+        assertEquals(filter.cardinality(), filter.metrics().get("estimatedCardinality").longValue());
+    }
+
+    @Test
+    public void testIncompatibleFiltersAreRejected() {
+        BloomFilter<String> filter = filterOf(0, 10);
+        BloomFilter<String> smaller = new BloomFilter<>(0.01, 50_000, hasher, serializer);
+        BloomFilter<String> otherHasher = new BloomFilter<>(0.01, 100_000, new MurmurHash3(), serializer);
+        assertThrows(IllegalArgumentException.class, () -> filter.union(smaller));
+        assertThrows(IllegalArgumentException.class, () -> filter.intersect(smaller));
+        assertThrows(IllegalArgumentException.class, () -> filter.union(otherHasher));
+        assertThrows(IllegalArgumentException.class, () -> filter.intersect(otherHasher));
+    }
+}
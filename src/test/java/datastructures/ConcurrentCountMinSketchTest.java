@@ -0,0 +1,95 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentCountMinSketchTest {
+
+    private static final int THREADS = 8;
+    private static final int KEYS = 2000;
+    private static final int ROUNDS = 50;
+
+    private static ConcurrentCountMinSketch<String> newSketch(boolean conservative) {
+        return new ConcurrentCountMinSketch<>(
+                0.001, 0.01, conservative,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+    }
+
+    @ParameterizedTest(name = "conservative={0}")
+    @ValueSource(booleans = {false, true})
+    public void testNoLostUpdatesUnderContention(boolean conservative) throws Exception {
+        ConcurrentCountMinSketch<String> cms = newSketch(conservative);
+
+        // Every thread adds every key ROUNDS times, so each key ends up with THREADS * ROUNDS.
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < ROUNDS; r++) {
+                        for (int i = 0; i < KEYS; i++) {
+                            cms.add("key" + i, 1);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        long expected = (long) THREADS * ROUNDS;
+        assertEquals(expected * KEYS, cms.getTotalCount());
+        for (int i = 0; i < KEYS; i++) {
+            long estimate = cms.estimateCount("key" + i);
+            assertTrue(estimate >= expected, "Underestimate for key" + i + ": " + estimate);
+            assertTrue(estimate <= expected + cms.getErrorBound(), "Error bound exceeded for key" + i);
+        }
+    }
+
+    @Test
+    public void testConservativeUpdateNeverExceedsStandardUpdate() {
+        ConcurrentCountMinSketch<String> standard = newSketch(false);
+        ConcurrentCountMinSketch<String> conservative = newSketch(true);
+
+        Random random = new Random(42);
+        long[] trueCounts = new long[20000];
+        for (int n = 0; n < 200000; n++) {
+            // Skewed stream: low ids are much more frequent
+            int id = (int) Math.floor(Math.pow(random.nextDouble(), 3) * trueCounts.length);
+            trueCounts[id]++;
+            standard.add("item" + id, 1);
+            conservative.add("item" + id, 1);
+        }
+
+        long standardError = 0;
+        long conservativeError = 0;
+        for (int id = 0; id < trueCounts.length; id++) {
+            long s = standard.estimateCount("item" + id);
+            long c = conservative.estimateCount("item" + id);
+            assertTrue(c >= trueCounts[id], "Conservative update underestimated item" + id);
+            assertTrue(c <= s, "Conservative estimate above standard estimate for item" + id);
+            standardError += s - trueCounts[id];
+            conservativeError += c - trueCounts[id];
+        }
+
+        System.out.printf("Total overestimate: standard=%d, conservative=%d%n", standardError, conservativeError);
+        assertTrue(conservativeError < standardError);
+    }
+
+}
@@ -0,0 +1,59 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentHeavyKeeperTopKTest {
+
+    @Test
+    public void testConcurrentWritersFindHeavyHitters() throws Exception {
+        ConcurrentHeavyKeeperTopK<String> tracker = new ConcurrentHeavyKeeperTopK<>(
+                4, 3, 1024, 3, 1.08, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+
+        int threads = 8;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        tracker.insert("noise-" + id + "-" + i);
+                        if (i % 2 == 0) {
+                            tracker.insert("Maradona");
+                        }
+                        if (i % 4 == 0) {
+                            tracker.insert("Messi");
+                        }
+                        if (i % 8 == 0) {
+                            tracker.insert("Pele");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(tracker.getTopK().entrySet());
+        assertEquals(3, top.size());
+        assertEquals("Maradona", top.get(0).getKey());
+        assertEquals("Messi", top.get(1).getKey());
+        assertEquals("Pele", top.get(2).getKey());
+        // HeavyKeeper never overestimates a flow that owns its buckets
+        assertTrue(top.get(0).getValue() <= threads * 10000);
+    }
+
+}
@@ -0,0 +1,201 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountAllTopKTest {
+
+    @ParameterizedTest(name = "k={0}, distinct={1}, events={2}")
+    @CsvSource({
+            "10, 10000, 200000",
+            "100, 50000, 500000",
+            "1000, 100000, 1000000",
+    })
+    public void testFindsHeavyHittersOnZipfianStream(int k, int distinct, int events) {
+        CountAllTopK<String> topK = new CountAllTopK<>(
+                0.0001, 0.001, k,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+
+        // Zipf(1.1) stream via inverse CDF over precomputed weights
+        double[] cdf = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / Math.pow(i + 1, 1.1);
+            cdf[i] = sum;
+        }
+        Random random = new Random(42);
+        Map<String, Long> trueCounts = new HashMap<>();
+        for (int e = 0; e < events; e++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            String key = "item" + (idx < 0 ? -idx - 1 : idx);
+            topK.add(key, 1);
+            trueCounts.merge(key, 1L, Long::sum);
+        }
+
+        List<Map.Entry<String, Long>> result = topK.getTopK();
+        assertEquals(k, result.size());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getValue() >= result.get(i).getValue(), "Result is not sorted");
+        }
+
+        Set<String> reported = new HashSet<>();
+        for (Map.Entry<String, Long> entry : result) {
+            reported.add(entry.getKey());
+            assertTrue(entry.getValue() >= trueCounts.get(entry.getKey()), "Count below true frequency");
+        }
+
+        // The heaviest tenth of the true top-k must all be reported
+        List<String> trueTop = trueCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(Math.max(1, k / 10))
+                .map(Map.Entry::getKey)
+                .toList();
+        assertTrue(reported.containsAll(trueTop), "Missing true heavy hitters");
+    }
+
+    @Test
+    public void testQueriesInPlaceKeepTheHeapValid() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        // More heap slots than distinct items, so neither tracker evicts and both must end up equal
+        CountAllTopK<String> queried = new CountAllTopK<>(0.001, 0.01, 64, new MurmurHash3(), serializer);
+        CountAllTopK<String> unqueried = new CountAllTopK<>(0.001, 0.01, 64, new MurmurHash3(), serializer);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50000; i++) {
+            String key = "item" + (int) Math.floor(Math.pow(random.nextDouble(), 3) * 50);
+            queried.add(key, 1);
+            unqueried.add(key, 1);
+            if (i % 97 == 0) {
+                List<Map.Entry<String, Long>> result = queried.getTopK();
+                assertEquals(result, queried.getTopK());
+                for (int j = 1; j < result.size(); j++) {
+                    assertTrue(result.get(j - 1).getValue() >= result.get(j).getValue(), "Result is not sorted");
+                }
+            }
+        }
+
+        Map<String, Long> expected = new HashMap<>();
+        unqueried.getTopK().forEach(entry -> expected.put(entry.getKey(), entry.getValue()));
+        Map<String, Long> actual = new HashMap<>();
+        queried.getTopK().forEach(entry -> actual.put(entry.getKey(), entry.getValue()));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testFingerprintOnlyModeMatchesDefaultMode() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        Map<Long, String> retained = new HashMap<>();
+        KeyDictionary<String> dictionary = mapDictionary(retained);
+        CountAllTopK<String> plain = new CountAllTopK<>(0.001, 0.01, 20, new MurmurHash3(), serializer);
+        CountAllTopK<String> fingerprintOnly = new CountAllTopK<>(0.001, 0.01, 20, new MurmurHash3(), serializer, dictionary);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            String key = "url" + (int) Math.floor(Math.pow(random.nextDouble(), 4) * 50000);
+            plain.add(key, 1);
+            fingerprintOnly.add(key, 1);
+        }
+
+        assertEquals(plain.getTopK(), fingerprintOnly.getTopK());
+        assertEquals(20, retained.size());
+    }
+
+    @Test
+    public void testClearEmptiesTheHeapAndReleasesKeys() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        Map<Long, String> retained = new HashMap<>();
+        CountAllTopK<String> plain = new CountAllTopK<>(0.001, 0.01, 5, new MurmurHash3(), serializer);
+        CountAllTopK<String> fingerprintOnly = new CountAllTopK<>(0.001, 0.01, 5, new MurmurHash3(), serializer,
+                mapDictionary(retained));
+        for (CountAllTopK<String> topK : List.of(plain, fingerprintOnly)) {
+            for (int i = 0; i < 1000; i++) {
+                topK.add("item" + i % 20, 1 + i % 7);
+            }
+            topK.clear();
+            assertEquals(List.of(), topK.getTopK());
+            assertEquals(0, topK.metrics().get("trackedItems"));
+            assertEquals(0L, topK.metrics().get("heapEvictions"));
+
+            // Stale heap entries would keep their old counts and crowd out the new items
+            topK.add("fresh", 3);
+            topK.add("item1", 1);
+            assertEquals(List.of(Map.entry("fresh", 3L), Map.entry("item1", 1L)), topK.getTopK());
+        }
+        assertEquals(Set.of("fresh", "item1"), new HashSet<>(retained.values()));
+    }
+
+    @Test
+    public void testMergeCombinesTheHeapsOfBothTrackers() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        Map<Long, String> retained = new HashMap<>();
+        CountAllTopK<String> single = new CountAllTopK<>(0.001, 0.01, 10, new MurmurHash3(), serializer);
+        CountAllTopK<String> left = new CountAllTopK<>(0.001, 0.01, 10, new MurmurHash3(), serializer,
+                mapDictionary(retained));
+        CountAllTopK<String> right = new CountAllTopK<>(0.001, 0.01, 10, new MurmurHash3(), serializer);
+
+        // Each half has its own heavy hitters, so the merged heap needs items only the other half tracked
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            boolean leftHalf = i % 2 == 0;
+            int rank = (int) Math.floor(Math.pow(random.nextDouble(), 4) * 5000);
+            String key = (rank < 20 ? (leftHalf ? "left" : "right") : "tail") + rank;
+            single.add(key, 1);
+            (leftHalf ? left : right).add(key, 1);
+        }
+
+        left.merge(right);
+        assertEquals(single.getTotalCount(), left.getTotalCount());
+        assertEquals(single.getTopK(), left.getTopK());
+        assertEquals(10, retained.size());
+        assertEquals(10, left.metrics().get("trackedItems"));
+    }
+
+    @Test
+    public void testSubtractReEstimatesTrackedItems() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        CountAllTopK<String> topK = new CountAllTopK<>(0.001, 0.01, 5, new MurmurHash3(), serializer);
+        CountAllTopK<String> snapshot = new CountAllTopK<>(0.001, 0.01, 5, new MurmurHash3(), serializer);
+        for (String key : List.of("a", "b", "c")) {
+            topK.add(key, 10);
+            snapshot.add(key, 10);
+        }
+        topK.add("a", 5);
+
+        topK.subtract(snapshot);
+        assertEquals(List.of(Map.entry("a", 5L)), topK.getTopK());
+    }
+
+    private static KeyDictionary<String> mapDictionary(Map<Long, String> retained) {
+        return new KeyDictionary<>() {
+            public void record(long fingerprint, String key) {
+                retained.put(fingerprint, key);
+            }
+
+            public void release(long fingerprint) {
+                retained.remove(fingerprint);
+            }
+
+            public String resolve(long fingerprint) {
+                return retained.get(fingerprint);
+            }
+        };
+    }
+
+}
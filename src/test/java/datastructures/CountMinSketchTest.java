@@ -0,0 +1,337 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountMinSketchTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            // Realistic high-scale scenarios: web logs, internet traffic, search engines, e-commerce.
+            // Dominant items vs sparse rare ones — stresses Count-Min Sketch with heavy-tailed distributions.
+            "0.01, 0.01, 100, 500000, 100000, 2000, 5, 1",
+            "0.005, 0.01, 5000, 5000000, 500000, 1000, 3, 1",
+            "0.01, 0.05, 200, 100000, 20000, 1500, 10, 2",
+            "0.01, 0.01, 50000, 10000, 10000, 500, 8000, 1000",
+            "0.005, 0.01, 100000, 100000, 50000, 2000, 3000, 500",
+            "0.01, 0.01, 50, 1000000, 500000, 1500, 5, 1",
+            "0.001, 0.005, 500000, 10000, 100000, 1000, 1000, 300",
+            "0.01, 0.01, 1000000, 1000000, 100000, 3000, 3000, 300",
+
+            // Flat frequencies across items
+            "0.01, 0.01, 10000, 10000, 500, 0, 500, 0",
+            "0.001, 0.01, 10000, 10000, 1000, 100, 1000, 100",
+
+            // Edge case: very few items but high variance
+            "0.01, 0.01, 5, 5, 10000, 5000, 10, 10",
+
+            // Cold-start sparse scenario: very low item counts and low frequencies
+            // Simulates early-stage systems or underutilized features.
+            "0.01, 0.01, 50, 500, 10, 2, 5, 1",
+    })
+    public void testBoundWithGaussianFrequencies(
+            double epsilon, double delta,
+            int frequentItemCount, int rareItemCount,
+            double freqMean, double freqStd,
+            double rareMean, double rareStd) {
+
+        CountMinSketch<String> cms = new CountMinSketch<>(
+                epsilon, delta,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+
+        Map<String, Long> trueFrequencies = new HashMap<>();
+        Random random = new Random(42); // Seed for reproducibility
+
+        // Generate frequencies for frequent items using a Gaussian distribution
+        for (int i = 0; i < frequentItemCount; i++) {
+            long freq = Math.max(1, Math.round(random.nextGaussian() * freqStd + freqMean));
+            String key = "frequent" + i;
+            cms.add(key, freq);
+            trueFrequencies.put(key, freq);
+        }
+
+        // Generate frequencies for rare items using a Gaussian distribution
+        for (int i = 0; i < rareItemCount; i++) {
+            long freq = Math.max(1, Math.round(random.nextGaussian() * rareStd + rareMean));
+            String key = "rare" + i;
+            cms.add(key, freq);
+            trueFrequencies.put(key, freq);
+        }
+
+        long errorBound = cms.getErrorBound();
+        int violations = 0;
+
+        // Check accuracy of estimated frequencies against true values
+        for (Map.Entry<String, Long> entry : trueFrequencies.entrySet()) {
+            long trueValue = entry.getValue();
+            long estimate = cms.estimateCount(entry.getKey());
+
+            if (estimate > trueValue + errorBound) {
+                violations++;
+            }
+        }
+
+        double violationRate = violations / (double) trueFrequencies.size();
+        System.out.printf(
+                "[ε=%.4f, δ=%.4f, freqMean=%.1f, rareMean=%.1f] Violations: %d / %d (%.2f%%)%n",
+                epsilon, delta, freqMean, rareMean,
+                violations, trueFrequencies.size(),
+                violationRate * 100
+        );
+
+        // Assert the theoretical guarantee of Count-Min Sketch
+        assertTrue(violationRate <= (1 - delta),
+                "Too many violations of the theoretical error bound");
+    }
+
+    @ParameterizedTest
+    @EnumSource(CountMinSketch.CounterWidth.class)
+    public void testCompactCountersMatchLongCounters(CountMinSketch.CounterWidth counterWidth) {
+        CountMinSketch<String> reference = new CountMinSketch<>(
+                0.01, 0.01,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+        CountMinSketch<String> compact = new CountMinSketch<>(
+                0.01, 0.01,
+                counterWidth, CountMinSketch.OverflowPolicy.PROMOTE,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            String key = "key" + random.nextInt(2000);
+            long value = 1 + random.nextInt(3);
+            reference.add(key, value);
+            compact.add(key, value);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(reference.estimateCount("key" + i), compact.estimateCount("key" + i));
+        }
+        assertEquals(reference.getErrorBound(), compact.getErrorBound());
+    }
+
+    @Test
+    public void testSaturatingCountersClampAtMaximum() {
+        CountMinSketch<String> cms = new CountMinSketch<>(
+                0.01, 0.01,
+                CountMinSketch.CounterWidth.BITS_8, CountMinSketch.OverflowPolicy.SATURATE,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+
+        cms.add("heavy", 200);
+        cms.add("heavy", 200);
+
+        assertEquals(255, cms.estimateCount("heavy"));
+        assertEquals(CountMinSketch.CounterWidth.BITS_8, cms.getCounterWidth());
+    }
+
+    @Test
+    public void testPromotingCountersWidenOnOverflow() {
+        CountMinSketch<String> cms = new CountMinSketch<>(
+                0.01, 0.01,
+                CountMinSketch.CounterWidth.BITS_8, CountMinSketch.OverflowPolicy.PROMOTE,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+
+        cms.add("light", 7);
+        cms.add("heavy", 200);
+        assertEquals(CountMinSketch.CounterWidth.BITS_8, cms.getCounterWidth());
+
+        cms.add("heavy", 70_000);
+        assertEquals(CountMinSketch.CounterWidth.BITS_32, cms.getCounterWidth());
+        assertEquals(70_200, cms.estimateCount("heavy"));
+        assertTrue(cms.estimateCount("light") >= 7);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CountMinSketch.Layout.class)
+    public void testLayoutsNeverUnderestimateAndRespectBound(CountMinSketch.Layout layout) {
+        CountMinSketch<String> cms = new CountMinSketch<>(
+                0.001, 0.001, layout,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+        assertTrue(cms.getWidth() >= Math.ceil(Math.E / 0.001));
+
+        Map<String, Long> trueFrequencies = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            long freq = 1 + random.nextInt(100);
+            String key = "key" + i;
+            cms.add(key, freq);
+            trueFrequencies.put(key, freq);
+        }
+
+        long errorBound = cms.getErrorBound();
+        int violations = 0;
+        for (Map.Entry<String, Long> entry : trueFrequencies.entrySet()) {
+            long estimate = cms.estimateCount(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "Underestimate for " + entry.getKey());
+            if (estimate > entry.getValue() + errorBound) {
+                violations++;
+            }
+        }
+
+        double violationRate = violations / (double) trueFrequencies.size();
+        System.out.printf("[layout=%s, width=%d] Violations: %d / %d%n",
+                layout, cms.getWidth(), violations, trueFrequencies.size());
+        assertTrue(violationRate <= 0.01, "Too many violations for layout " + layout);
+    }
+
+    @Test
+    public void testBlockedLayoutKeepsRowsApartBeyondDepthEight() {
+        // delta = 0.0001 gives depth 10, more rows than a 16-counter block has room for at two slots each
+        CountMinSketch<String> cms = new CountMinSketch<>(
+                0.001, 0.0001, CountMinSketch.Layout.BLOCKED,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+        assertEquals(10, cms.getDepth());
+        assertTrue(cms.getWidth() >= Math.ceil(Math.E / 0.001));
+
+        // Same h1, so every probe lands in the heavy item's block; only independent rows let it escape
+        long h1 = 0x9E3779B97F4A7C15L;
+        cms.add(h1, 1L, 1000);
+        Random random = new Random(7);
+        int collidedEverywhere = 0;
+        for (int i = 0; i < 200; i++) {
+            if (cms.estimateCount(h1, random.nextLong()) >= 1000) {
+                collidedEverywhere++;
+            }
+        }
+        System.out.printf("[layout=BLOCKED, depth=%d] Probes colliding in every row: %d / 200%n",
+                cms.getDepth(), collidedEverywhere);
+        assertTrue(collidedEverywhere < 20, "Rows of the blocked layout are not independent");
+    }
+
+    private static CountMinSketch<String> newStringSketch() {
+        return new CountMinSketch<>(0.001, 0.01, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMergeOfShardsEqualsSingleSketch() {
+        CountMinSketch<String> single = newStringSketch();
+        List<CountMinSketch<String>> shards = new ArrayList<>();
+        for (int s = 0; s < 40; s++) {
+            shards.add(newStringSketch());
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + random.nextInt(5000);
+            single.add(key, 1);
+            shards.get(random.nextInt(shards.size())).add(key, 1);
+        }
+
+        CountMinSketch<String> pairwise = newStringSketch();
+        for (CountMinSketch<String> shard : shards) {
+            pairwise.merge(shard);
+        }
+        long[] shardTotals = shards.stream().mapToLong(CountMinSketch::getTotalCount).toArray();
+        CountMinSketch<String> reduced = CountMinSketch.mergeAll(shards);
+        assertArrayEquals(shardTotals, shards.stream().mapToLong(CountMinSketch::getTotalCount).toArray());
+
+        for (int i = 0; i < 5000; i++) {
+            String key = "key" + i;
+            assertEquals(single.estimateCount(key), pairwise.estimateCount(key));
+            assertEquals(single.estimateCount(key), reduced.estimateCount(key));
+        }
+        assertEquals(single.getTotalCount(), reduced.getTotalCount());
+        assertEquals(single.getErrorBound(), reduced.getErrorBound());
+        assertEquals(0, CountMinSketch.mergeAll(List.of(newStringSketch())).getTotalCount());
+    }
+
+    @Test
+    public void testSubtractRestoresEarlierState() {
+        CountMinSketch<String> before = newStringSketch();
+        CountMinSketch<String> delta = newStringSketch();
+        CountMinSketch<String> after = newStringSketch();
+
+        for (int i = 0; i < 1000; i++) {
+            before.add("key" + i, i);
+            after.add("key" + i, i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            delta.add("key" + i, 10);
+            after.add("key" + i, 10);
+        }
+
+        after.subtract(delta);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(before.estimateCount("key" + i), after.estimateCount("key" + i));
+        }
+        assertEquals(before.getErrorBound(), after.getErrorBound());
+        assertThrows(IllegalArgumentException.class, () -> delta.subtract(before));
+    }
+
+    @Test
+    public void testMergeOfMixedCounterWidthsPromotes() {
+        CountMinSketch<String> narrow = new CountMinSketch<>(
+                0.001, 0.01,
+                CountMinSketch.CounterWidth.BITS_8, CountMinSketch.OverflowPolicy.PROMOTE,
+                new MurmurHash3(),
+                new StringSerializer(StandardCharsets.UTF_8)
+        );
+        CountMinSketch<String> wide = newStringSketch();
+        narrow.add("heavy", 200);
+        wide.add("heavy", 100_000);
+
+        narrow.merge(wide);
+        assertEquals(100_200, narrow.estimateCount("heavy"));
+    }
+
+    @Test
+    public void testMergeRejectsIncompatibleSketches() {
+        CountMinSketch<String> cms = newStringSketch();
+        CountMinSketch<String> other = new CountMinSketch<>(
+                0.01, 0.01, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        CountMinSketch<String> otherLayout = new CountMinSketch<>(
+                0.001, 0.01, CountMinSketch.Layout.POWER_OF_TWO,
+                new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> cms.merge(other));
+        assertThrows(IllegalArgumentException.class, () -> cms.merge(otherLayout));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CountMinSketch.Layout.class)
+    public void testAddAndEstimateMatchesSeparateCalls(CountMinSketch.Layout layout) {
+        CountMinSketch<String> fused = new CountMinSketch<>(
+                0.01, 0.01, layout, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        CountMinSketch<String> separate = new CountMinSketch<>(
+                0.01, 0.01, layout, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String key = "key" + random.nextInt(3000);
+            long value = random.nextInt(5);
+            separate.add(key, value);
+            assertEquals(separate.estimateCount(key), fused.addAndEstimate(key, value));
+        }
+        assertEquals(separate.getTotalCount(), fused.getTotalCount());
+    }
+
+}
@@ -1,3 +1,5 @@
+package datastructures;
+
 import serializer.Serializer;
 
 import java.nio.ByteBuffer;
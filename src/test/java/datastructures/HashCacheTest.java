@@ -0,0 +1,148 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import serializer.JavaSerializer;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashCacheTest {
+    private final Hasher hasher = new XXH3();
+    private final Serializer<String> serializer = new StringSerializer(StandardCharsets.UTF_8);
+
+    // Squaring a uniform draw skews the stream towards low ranks
+    private static List<String> skewedStream(int length, int distinct, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> stream = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble();
+            stream.add("key" + (int) (u * u * u * distinct));
+        }
+        return stream;
+    }
+
+    @Test
+    public void testCachedStructuresMatchUncachedOnes() {
+        HashCache<String> cache = new HashCache<>(1024, hasher, serializer);
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 10_000, cache);
+        CountMinSketch<String> sketch = new CountMinSketch<>(0.001, 0.01, cache);
+        CountAllTopK<String> topK = new CountAllTopK<>(0.001, 0.01, 10, cache);
+        BloomFilter<String> expectedFilter = new BloomFilter<>(0.01, 10_000, hasher, serializer);
+        CountMinSketch<String> expectedSketch = new CountMinSketch<>(0.001, 0.01, hasher, serializer);
+        CountAllTopK<String> expectedTopK = new CountAllTopK<>(0.001, 0.01, 10, hasher, serializer);
+
+        List<String> stream = skewedStream(100_000, 10_000, 1);
+        for (String key : stream) {
+            filter.add(key);
+            sketch.add(key, 1);
+            topK.add(key, 1);
+            expectedFilter.add(key);
+            expectedSketch.add(key, 1);
+            expectedTopK.add(key, 1);
+        }
+
+        assertEquals(expectedFilter.bitSet, filter.bitSet);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expectedFilter.contains("key" + i), filter.contains("key" + i));
+            assertEquals(expectedSketch.estimateCount("key" + i), sketch.estimateCount("key" + i));
+        }
+        assertEquals(expectedTopK.getTopK(), topK.getTopK());
+
+        Map<String, Number> metrics = cache.metrics();
+        assertEquals(3L * stream.size() + 2000, metrics.get("hits").longValue() + metrics.get("misses").longValue());
+        assertTrue(cache.hitRate() > 0.5, "hit rate " + cache.hitRate());
+        assertTrue(metrics.get("size").intValue() <= metrics.get("capacity").intValue());
+        assertTrue(metrics.get("evictions").longValue() > 0);
+    }
+
+    @Test
+    public void testHotKeysSkipSerializationUnderColdTraffic() {
+        AtomicInteger hotSerializations = new AtomicInteger();
+        Serializer<String> counting = item -> {
+            if (item.equals("hot")) {
+                hotSerializations.incrementAndGet();
+            }
+            return item.getBytes(StandardCharsets.UTF_8);
+        };
+        HashCache<String> cache = new HashCache<>(64, hasher, counting);
+        CountMinSketch<String> sketch = new CountMinSketch<>(0.001, 0.01, cache);
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add("hot", 1);
+            for (int j = 0; j < 3; j++) {
+                sketch.add("cold" + (3 * i + j), 1); // never seen again
+            }
+        }
+        // CLOCK gives the re-referenced hot key a second chance every time the hand reaches it
+        assertEquals(1, hotSerializations.get());
+        assertTrue(sketch.estimateCount("hot") >= 100_000);
+    }
+
+    @Test
+    public void testIdentityKeyingMatchesByReference() {
+        HashCache<String> cache = new HashCache<>(16, HashCache.Keying.IDENTITY, hasher, serializer);
+        String key = "key";
+        String copy = new String("key");
+        HashCache.Entry first = cache.get(key);
+        assertSame(first, cache.get(key));
+        HashCache.Entry other = cache.get(copy);
+        assertTrue(first != other);
+        assertEquals(first.h1, other.h1);
+        assertEquals(1, cache.metrics().get("hits").longValue());
+        assertEquals(2, cache.metrics().get("misses").longValue());
+    }
+
+    @Test
+    public void testConcurrentLookupsReturnCorrectHashes() throws Exception {
+        HashCache<Long> cache = new HashCache<>(256, hasher, new JavaSerializer<>());
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                long seed = t;
+                results.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    JavaSerializer<Long> javaSerializer = new JavaSerializer<>();
+                    int wrong = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        double u = random.nextDouble();
+                        Long key = (long) (u * u * 2000);
+                        HashCache.Entry entry = cache.get(key);
+                        byte[] data = javaSerializer.serialize(key);
+                        if (entry.h1 != hasher.hash64(data, HashSeed.PRIMARY_HASH_SEED)
+                                || entry.h2 != hasher.hash64(data, HashSeed.SECONDARY_HASH_SEED)) {
+                            wrong++;
+                        }
+                    }
+                    return wrong;
+                }));
+            }
+        }
+        for (Future<Integer> result : results) {
+            assertEquals(0, result.get());
+        }
+        assertEquals(8 * 20_000L, cache.metrics().get("hits").longValue() + cache.metrics().get("misses").longValue());
+    }
+
+    @Test
+    public void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HashCache<>(0, hasher, serializer));
+        HashCache<String> cache = new HashCache<>(10, hasher, serializer);
+        assertEquals(16, cache.metrics().get("capacity").intValue());
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null));
+    }
+}
@@ -0,0 +1,171 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HeavyKeeperTopKTest {
+
+    private static HeavyKeeperTopK<String> newTracker(int d, int w, int k) {
+        return new HeavyKeeperTopK<>(d, w, k, 1.08, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testHeavyHittersSurviveManySingletons() {
+        HeavyKeeperTopK<String> tracker = newTracker(3, 100, 2);
+
+        for (int i = 0; i < 100000; i++) {
+            tracker.insert("Player" + i);
+        }
+        for (int i = 0; i < 100000; i++) {
+            tracker.insert("Maradona");
+            tracker.insert("Messi");
+        }
+
+        Map<String, Integer> topK = tracker.getTopK();
+        assertEquals(2, topK.size());
+        assertTrue(topK.containsKey("Maradona"));
+        assertTrue(topK.containsKey("Messi"));
+    }
+
+    @ParameterizedTest(name = "k={0}, w={1}")
+    @CsvSource({
+            "100, 4096",
+            "2000, 32768",
+    })
+    public void testRecallOnZipfianStream(int k, int w) {
+        HeavyKeeperTopK<String> tracker = newTracker(3, w, k);
+
+        int distinct = 200000;
+        double[] cdf = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / Math.pow(i + 1, 1.1);
+            cdf[i] = sum;
+        }
+        Random random = new Random(42);
+        Map<String, Integer> trueCounts = new HashMap<>();
+        for (int e = 0; e < 1_000_000; e++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            String key = "item" + (idx < 0 ? -idx - 1 : idx);
+            tracker.insert(key);
+            trueCounts.merge(key, 1, Integer::sum);
+        }
+
+        Map<String, Integer> topK = tracker.getTopK();
+        List<Integer> counts = new ArrayList<>(topK.values());
+        for (int i = 1; i < counts.size(); i++) {
+            assertTrue(counts.get(i - 1) >= counts.get(i), "Result is not sorted");
+        }
+
+        // The heaviest tenth of the true top-k must be found
+        List<String> trueTop = trueCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(k / 10)
+                .map(Map.Entry::getKey)
+                .toList();
+        for (String key : trueTop) {
+            assertTrue(topK.containsKey(key), "Missing heavy hitter " + key);
+        }
+    }
+
+    @Test
+    public void testSameSeedIsReproducible() {
+        HeavyKeeperTopK<String> first = new HeavyKeeperTopK<>(
+                3, 64, 10, 1.08, 1234L, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        HeavyKeeperTopK<String> second = new HeavyKeeperTopK<>(
+                3, 64, 10, 1.08, 1234L, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + (random.nextBoolean() ? random.nextInt(20) : random.nextInt(100000));
+            first.insert(key);
+            second.insert(key);
+        }
+
+        assertEquals(new ArrayList<>(first.getTopK().entrySet()), new ArrayList<>(second.getTopK().entrySet()));
+    }
+
+    @Test
+    public void testMergeAggregatesHeavyHittersAcrossNodes() {
+        HeavyKeeperTopK<String> nodeA = newTracker(3, 256, 5);
+        HeavyKeeperTopK<String> nodeB = newTracker(3, 256, 5);
+
+        for (int i = 0; i < 50000; i++) {
+            nodeA.insert("noiseA" + i);
+            nodeB.insert("noiseB" + i);
+        }
+        // "shared" is heavy on both nodes, "onlyA" and "onlyB" on one node each
+        for (int i = 0; i < 30000; i++) {
+            nodeA.insert("shared");
+            nodeB.insert("shared");
+            nodeA.insert("onlyA");
+        }
+        for (int i = 0; i < 20000; i++) {
+            nodeB.insert("onlyB");
+        }
+
+        nodeA.merge(nodeB);
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(nodeA.getTopK().entrySet());
+        assertEquals("shared", top.get(0).getKey());
+        assertTrue(top.get(0).getValue() > 50000, "Merged count too low: " + top.get(0).getValue());
+        assertEquals("onlyA", top.get(1).getKey());
+        assertEquals("onlyB", top.get(2).getKey());
+    }
+
+    @Test
+    public void testMergeRejectsDifferentSeeds() {
+        HeavyKeeperTopK<String> first = new HeavyKeeperTopK<>(
+                3, 64, 10, 1.08, 1L, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        HeavyKeeperTopK<String> second = new HeavyKeeperTopK<>(
+                3, 64, 10, 1.08, 2L, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> first.merge(second));
+    }
+
+    @Test
+    public void testFingerprintOnlyModeMatchesDefaultMode() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        Map<Long, String> retained = new HashMap<>();
+        KeyDictionary<String> dictionary = new KeyDictionary<>() {
+            public void record(long fingerprint, String key) {
+                retained.put(fingerprint, key);
+            }
+
+            public void release(long fingerprint) {
+                retained.remove(fingerprint);
+            }
+
+            public String resolve(long fingerprint) {
+                return retained.get(fingerprint);
+            }
+        };
+        HeavyKeeperTopK<String> plain = new HeavyKeeperTopK<>(3, 1024, 20, 1.08, 1234, new MurmurHash3(), serializer);
+        HeavyKeeperTopK<String> fingerprintOnly = new HeavyKeeperTopK<>(
+                3, 1024, 20, 1.08, 1234, new MurmurHash3(), serializer, dictionary);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            String key = "url" + (int) Math.floor(Math.pow(random.nextDouble(), 4) * 50000);
+            plain.insert(key);
+            fingerprintOnly.insert(key);
+        }
+
+        assertEquals(plain.getTopK(), fingerprintOnly.getTopK());
+        assertTrue(retained.size() <= 20, "Dictionary holds more than k keys");
+    }
+
+}
@@ -0,0 +1,149 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IngestPipelineTest {
+    private static final int PRODUCERS = 1000;
+    private static final int ITEMS_PER_PRODUCER = 200;
+
+    private final Hasher hasher = new XXH3();
+    private final Serializer<String> serializer = new StringSerializer(StandardCharsets.UTF_8);
+
+    // Every producer adds "item0" .. "item199", so each item is added once per producer
+    private static void produce(Consumer<String> add) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < PRODUCERS; p++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < ITEMS_PER_PRODUCER; i++) {
+                        add.accept("item" + i);
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testVirtualThreadProducersFeedCountMinSketch() {
+        CountMinSketch<String> sketch = new CountMinSketch<>(0.001, 0.01, hasher, serializer);
+        try (IngestPipeline<String, CountMinSketch<String>> pipeline =
+                     IngestPipeline.forCountMinSketch(sketch, 1024, IngestPipeline.Backpressure.BLOCK)) {
+            produce(pipeline::add);
+            long total = pipeline.query(CountMinSketch::getTotalCount);
+            assertEquals((long) PRODUCERS * ITEMS_PER_PRODUCER, total);
+
+            Map<String, Number> metrics = pipeline.metrics();
+            assertEquals(total, metrics.get("applied").longValue());
+            assertEquals(0L, metrics.get("dropped").longValue());
+            assertEquals(0L, metrics.get("queueDepth").longValue());
+            assertTrue(metrics.get("meanBatchSize").doubleValue() >= 1);
+        }
+        for (int i = 0; i < ITEMS_PER_PRODUCER; i++) {
+            assertTrue(sketch.estimateCount("item" + i) >= PRODUCERS);
+        }
+    }
+
+    @Test
+    public void testIdleWriterParksUntilTheNextItem() throws InterruptedException {
+        HyperLogLog<String> hll = new HyperLogLog<>(12, hasher, serializer);
+        try (IngestPipeline<String, HyperLogLog<String>> pipeline =
+                     IngestPipeline.forHyperLogLog(hll, 64, IngestPipeline.Backpressure.BLOCK)) {
+            for (int round = 0; round < 3; round++) {
+                // Once parked the writer stays WAITING instead of waking on a timer
+                Thread writer = pipeline.writerThread();
+                for (int i = 0; i < 1000 && writer.getState() != Thread.State.WAITING; i++) {
+                    Thread.sleep(1);
+                }
+                assertEquals(Thread.State.WAITING, writer.getState());
+                Thread.sleep(5);
+                assertEquals(Thread.State.WAITING, writer.getState());
+
+                pipeline.add("item" + round);
+                for (int i = 0; i < 1000 && pipeline.metrics().get("applied").longValue() <= round; i++) {
+                    Thread.sleep(1);
+                }
+                assertEquals(round + 1L, pipeline.metrics().get("applied").longValue());
+            }
+        }
+    }
+
+    @Test
+    public void testBulkPathsMatchSequentialAdds() {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 10000, hasher, serializer);
+        HyperLogLog<String> hll = new HyperLogLog<>(12, hasher, serializer);
+        BloomFilter<String> expectedFilter = new BloomFilter<>(0.01, 10000, hasher, serializer);
+        HyperLogLog<String> expectedHll = new HyperLogLog<>(12, hasher, serializer);
+        try (IngestPipeline<String, BloomFilter<String>> filterPipeline =
+                     IngestPipeline.forBloomFilter(filter, 64, IngestPipeline.Backpressure.BLOCK);
+             IngestPipeline<String, HyperLogLog<String>> hllPipeline =
+                     IngestPipeline.forHyperLogLog(hll, 64, IngestPipeline.Backpressure.BLOCK)) {
+            for (int i = 0; i < 10000; i++) {
+                filterPipeline.add("item" + i);
+                hllPipeline.add("item" + i);
+                expectedFilter.add("item" + i);
+                expectedHll.add("item" + i);
+            }
+            assertEquals(expectedFilter.bitSet, filterPipeline.query(f -> f.bitSet));
+            assertEquals(expectedHll.estimate(), (long) hllPipeline.query(HyperLogLog::estimate));
+        }
+    }
+
+    @Test
+    public void testHeavyKeeperAndCountAllTopKFindHeavyHitters() {
+        HeavyKeeperTopK<String> heavyKeeper = new HeavyKeeperTopK<>(2, 1024, 10, 1.08, hasher, serializer);
+        CountAllTopK<String> countAll = new CountAllTopK<>(0.001, 0.01, 10, hasher, serializer);
+        try (IngestPipeline<String, HeavyKeeperTopK<String>> hkPipeline =
+                     IngestPipeline.forHeavyKeeper(heavyKeeper, 256, IngestPipeline.Backpressure.BLOCK);
+             IngestPipeline<String, CountAllTopK<String>> countAllPipeline =
+                     IngestPipeline.forCountMinSketch(countAll, 256, IngestPipeline.Backpressure.BLOCK)) {
+            produce(item -> {
+                String flow = item.endsWith("7") ? "heavy" : item;
+                hkPipeline.add(flow);
+                countAllPipeline.add(flow);
+            });
+            assertEquals("heavy", hkPipeline.query(t -> t.getTopK().keySet().iterator().next()));
+            assertEquals("heavy", countAllPipeline.query(t -> t.getTopK().get(0).getKey()));
+        }
+    }
+
+    @Test
+    public void testDropPolicyAccountsForEveryItem() {
+        HyperLogLog<String> hll = new HyperLogLog<>(10, hasher, serializer);
+        IngestPipeline<String, HyperLogLog<String>> pipeline =
+                IngestPipeline.forHyperLogLog(hll, 2, IngestPipeline.Backpressure.DROP);
+        produce(pipeline::add);
+        pipeline.flush();
+        Map<String, Number> metrics = pipeline.metrics();
+        assertEquals((long) PRODUCERS * ITEMS_PER_PRODUCER,
+                metrics.get("published").longValue() + metrics.get("dropped").longValue());
+        assertEquals(metrics.get("published").longValue(), metrics.get("applied").longValue());
+        pipeline.close();
+        assertThrows(IllegalStateException.class, () -> pipeline.add("late"));
+    }
+
+    @Test
+    public void testWriterFailureSurfacesToProducers() {
+        CountMinSketch<String> sketch = new CountMinSketch<>(0.01, 0.01, hasher, item -> {
+            throw new IllegalStateException("cannot serialize " + item);
+        });
+        IngestPipeline<String, CountMinSketch<String>> pipeline =
+                IngestPipeline.forCountMinSketch(sketch, 16, IngestPipeline.Backpressure.BLOCK);
+        pipeline.add("item");
+        IllegalStateException e = assertThrows(IllegalStateException.class, pipeline::flush);
+        assertEquals("cannot serialize item", e.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> pipeline.add("item"));
+    }
+}
@@ -0,0 +1,113 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import serializer.JavaSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongSketchesTest {
+
+    @Test
+    public void testUnmixInvertsFmix64() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 10000; i++) {
+            long key = random.nextLong();
+            assertEquals(key, LongHeavyKeeper.unmix(MurmurHash3.fmix64(key)));
+        }
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegativesAndComparableFpp() {
+        int n = 100000;
+        LongBloomFilter filter = new LongBloomFilter(0.01, n);
+        for (long id = 0; id < n; id++) {
+            filter.add(id);
+        }
+        int falsePositives = 0;
+        for (long id = 0; id < n; id++) {
+            assertTrue(filter.contains(id));
+            if (filter.contains(id + n)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 0.015 * n, "False positive rate too high: " + falsePositives);
+    }
+
+    @ParameterizedTest(name = "b={0}")
+    @ValueSource(ints = {10, 14})
+    public void testHyperLogLogMatchesGenericAccuracy(int b) {
+        int n = 500000;
+        LongHyperLogLog primitive = new LongHyperLogLog(b);
+        HyperLogLog<Long> generic = new HyperLogLog<>(b);
+        for (long id = 0; id < n; id++) {
+            primitive.add(id);
+            generic.add(id);
+        }
+        // Standard error is 1.04 / sqrt(m); allow four of them for either variant
+        double tolerance = 4 * 1.04 / Math.sqrt(1 << b);
+        assertEquals(n, primitive.estimate(), tolerance * n);
+        assertEquals(n, generic.estimate(), tolerance * n);
+    }
+
+    @Test
+    public void testHyperLogLogMerge() {
+        LongHyperLogLog left = new LongHyperLogLog(14);
+        LongHyperLogLog right = new LongHyperLogLog(14);
+        for (long id = 0; id < 100000; id++) {
+            left.add(id);
+            right.add(id + 50000);
+        }
+        left.merge(right);
+        assertEquals(150000, left.estimate(), 150000 * 0.04);
+    }
+
+    @Test
+    public void testCountMinSketchMatchesGenericBounds() {
+        LongCountMinSketch primitive = new LongCountMinSketch(0.001, 0.01);
+        CountMinSketch<Long> generic = new CountMinSketch<>(0.001, 0.01, new MurmurHash3(), new JavaSerializer<>());
+        Map<Long, Long> trueCounts = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long key = (long) (Math.pow(random.nextDouble(), 3) * 20000);
+            primitive.add(key);
+            generic.add(key, 1);
+            trueCounts.merge(key, 1L, Long::sum);
+        }
+
+        assertEquals(generic.getTotalCount(), primitive.getTotalCount());
+        assertEquals(generic.getErrorBound(), primitive.getErrorBound());
+        for (Map.Entry<Long, Long> entry : trueCounts.entrySet()) {
+            long estimate = primitive.estimateCount(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "Count below true frequency");
+            assertTrue(estimate <= entry.getValue() + 4 * primitive.getErrorBound(), "Overestimate far above bound");
+        }
+    }
+
+    @Test
+    public void testHeavyKeeperReportsOriginalKeys() {
+        LongHeavyKeeper tracker = new LongHeavyKeeper(3, 1024, 10, 1.08);
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            tracker.insert(random.nextInt(1_000_000) + 1_000_000L);
+            if (i % 10 == 0) {
+                tracker.insert(i % 100);
+            }
+        }
+
+        Map<Long, Integer> topK = tracker.getTopK();
+        assertEquals(10, topK.size());
+        for (long key = 0; key < 100; key += 10) {
+            assertTrue(topK.containsKey(key), "Missing heavy key " + key);
+        }
+    }
+
+}
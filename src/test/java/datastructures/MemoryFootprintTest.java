@@ -0,0 +1,115 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryFootprintTest {
+    private final Hasher hasher = new XXH3();
+    private final Serializer<String> serializer = new StringSerializer(StandardCharsets.UTF_8);
+
+    @Test
+    public void testShallowSizesFollowCompressedOopsLayout() {
+        // 12-byte header + int + long, padded to 8
+        assertEquals(24, MemoryFootprint.shallowSize(java.util.concurrent.atomic.AtomicLong.class));
+        assertEquals(16, MemoryFootprint.shallowSize(Object.class));
+        assertEquals(16, MemoryFootprint.array(0, Long.BYTES));
+        assertEquals(24, MemoryFootprint.array(1, Byte.BYTES));
+        assertEquals(56, MemoryFootprint.array(10, MemoryFootprint.REFERENCE));
+    }
+
+    @Test
+    public void testHyperLogLogFootprintIsDominatedByRegisters() {
+        HyperLogLog<String> hll = new HyperLogLog<>(12, hasher, serializer);
+        long registers = 16 + 4 * 4096;
+        assertEquals(registers + MemoryFootprint.shallowSize(HyperLogLog.class), hll.memoryFootprintBytes());
+        assertEquals(HyperLogLog.footprint(12), hll.memoryFootprintBytes());
+    }
+
+    @Test
+    public void testCountMinSketchFootprintFollowsPromotion() {
+        CountMinSketch<String> cms = new CountMinSketch<>(0.01, 0.01, CountMinSketch.CounterWidth.BITS_8,
+                CountMinSketch.OverflowPolicy.PROMOTE, hasher, serializer);
+        long narrow = cms.memoryFootprintBytes();
+        assertEquals(CountMinSketch.footprint(cms.getDepth(), cms.getWidth(), CountMinSketch.CounterWidth.BITS_8), narrow);
+        cms.add("item", 1000);
+        assertEquals(CountMinSketch.footprint(cms.getDepth(), cms.getWidth(), CountMinSketch.CounterWidth.BITS_16),
+                cms.memoryFootprintBytes());
+        assertTrue(cms.memoryFootprintBytes() > narrow);
+    }
+
+    @Test
+    public void testBloomFilterBudgetIsUsedUpAndRespected() {
+        long budget = 64 * 1024;
+        BloomFilter<String> filter = BloomFilter.withMemoryBudget(budget, 50000, hasher, serializer);
+        assertTrue(filter.memoryFootprintBytes() <= budget);
+        assertTrue(filter.memoryFootprintBytes() > budget * 0.99, "footprint " + filter.memoryFootprintBytes());
+        // 524,288 bits for 50,000 elements is about 10.5 bits each, i.e. roughly 0.7 % false positives
+        assertTrue(filter.errorRate > 0.005 && filter.errorRate < 0.01, "error rate " + filter.errorRate);
+        assertEquals(BloomFilter.footprint(filter.errorRate, 50000), filter.memoryFootprintBytes());
+    }
+
+    @Test
+    public void testCountMinSketchBudgetPicksWidestRows() {
+        long budget = 1 << 20;
+        CountMinSketch<String> cms = CountMinSketch.withMemoryBudget(budget, 0.01, hasher, serializer);
+        assertEquals(5, cms.getDepth());
+        assertTrue(cms.memoryFootprintBytes() <= budget);
+        assertTrue(CountMinSketch.footprint(5, cms.getWidth() + 1L, CountMinSketch.CounterWidth.BITS_64) > budget);
+
+        CountMinSketch<String> compact = CountMinSketch.withMemoryBudget(budget, 0.01,
+                CountMinSketch.CounterWidth.BITS_16, hasher, serializer);
+        assertTrue(compact.memoryFootprintBytes() <= budget);
+        assertTrue(compact.getWidth() > 3 * cms.getWidth());
+        // Saturating, so the table never outgrows the budget
+        compact.add("item", 1 << 20);
+        assertEquals(CountMinSketch.CounterWidth.BITS_16, compact.getCounterWidth());
+    }
+
+    @Test
+    public void testHyperLogLogBudgetPicksLargestPrecision() {
+        assertEquals(HyperLogLog.footprint(16), HyperLogLog.withMemoryBudget(1 << 30, hasher, serializer).memoryFootprintBytes());
+        HyperLogLog<String> hll = HyperLogLog.withMemoryBudget(HyperLogLog.footprint(11) + 100, hasher, serializer);
+        assertEquals(HyperLogLog.footprint(11), hll.memoryFootprintBytes());
+    }
+
+    @Test
+    public void testHeavyKeeperBudgetPicksWidestRows() {
+        long budget = 256 * 1024;
+        HeavyKeeperTopK<String> tracker = HeavyKeeperTopK.withMemoryBudget(budget, 100, hasher, serializer);
+        long footprint = tracker.memoryFootprintBytes();
+        assertTrue(footprint <= budget);
+        assertTrue(budget - footprint < 2 * (Long.BYTES + Integer.BYTES) + 16, "footprint " + footprint);
+    }
+
+    @Test
+    public void testTooSmallBudgetsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.withMemoryBudget(64, 1000, hasher, serializer));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.withMemoryBudget(64, 0.01, hasher, serializer));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.withMemoryBudget(64, hasher, serializer));
+        assertThrows(IllegalArgumentException.class, () -> HeavyKeeperTopK.withMemoryBudget(1024, 100, hasher, serializer));
+    }
+
+    @Test
+    public void testCompositeStructuresSumTheirParts() {
+        HeavyKeeperTopK<String> shard = new HeavyKeeperTopK<>(2, 512, 10, 1.08, hasher, serializer);
+        ConcurrentHeavyKeeperTopK<String> sharded = new ConcurrentHeavyKeeperTopK<>(4, 2, 512, 10, 1.08, hasher, serializer);
+        assertEquals(4 * shard.memoryFootprintBytes() + MemoryFootprint.shallowSize(ConcurrentHeavyKeeperTopK.class)
+                + MemoryFootprint.array(4, MemoryFootprint.REFERENCE), sharded.memoryFootprintBytes());
+
+        ScalableBloomFilter<String> scalable = new ScalableBloomFilter<>(0.01, 100, 2.0, 0.5, hasher, serializer);
+        long initial = scalable.memoryFootprintBytes();
+        for (int i = 0; i < 1000; i++) {
+            scalable.add("item" + i);
+        }
+        assertTrue(scalable.memoryFootprintBytes() > 4 * initial);
+    }
+}
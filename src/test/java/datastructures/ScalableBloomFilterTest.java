@@ -1,3 +1,5 @@
+package datastructures;
+
 import hasher.MurmurHash3;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -0,0 +1,150 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SketchMetricsTest {
+
+    @Test
+    public void testBloomFilterEstimatedFppTracksTarget() {
+        int n = 100000;
+        BloomFilter<String> filter = new BloomFilter<>(0.01, n, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        for (int i = 0; i < n; i++) {
+            filter.add("item" + i);
+        }
+        Map<String, Number> metrics = filter.metrics();
+        double fillRatio = metrics.get("fillRatio").doubleValue();
+        double estimatedFpp = metrics.get("estimatedFpp").doubleValue();
+        // A filter filled to capacity is about half full and close to its target rate
+        assertTrue(fillRatio > 0.4 && fillRatio < 0.6, "fill ratio " + fillRatio);
+        assertTrue(estimatedFpp > 0.005 && estimatedFpp < 0.02, "estimated fpp " + estimatedFpp);
+        assertEquals(0.01, metrics.get("targetFpp").doubleValue());
+    }
+
+    @Test
+    public void testHyperLogLogZeroRegistersDrain() {
+        HyperLogLog<String> hll = new HyperLogLog<>(10, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        assertEquals(1024, hll.metrics().get("zeroRegisters").intValue());
+        for (int i = 0; i < 100000; i++) {
+            hll.add("item" + i);
+        }
+        Map<String, Number> metrics = hll.metrics();
+        assertEquals(0, metrics.get("zeroRegisters").intValue());
+        assertEquals(hll.estimate(), metrics.get("estimate").longValue());
+    }
+
+    @Test
+    public void testHyperLogLogRunningEstimateFollowsAddsAndMerges() {
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        HyperLogLog<String> hll = new HyperLogLog<>(12, new MurmurHash3(), serializer);
+        HyperLogLog<String> other = new HyperLogLog<>(12, new MurmurHash3(), serializer);
+        assertEquals(0L, hll.metrics().get("estimate").longValue());
+        for (int i = 0; i < 50000; i++) {
+            (i % 2 == 0 ? hll : other).add("item" + i);
+            if (i % 5000 == 0) {
+                assertEquals(hll.estimate(), hll.metrics().get("estimate").longValue());
+            }
+        }
+        hll.merge(other);
+        assertEquals(hll.estimate(), hll.metrics().get("estimate").longValue());
+    }
+
+    @Test
+    public void testCountMinSketchReportsTotalAndErrorBound() {
+        CountMinSketch<String> cms = new CountMinSketch<>(0.001, 0.01, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        for (int i = 0; i < 5000; i++) {
+            cms.add("item" + (i % 100), 2);
+        }
+        Map<String, Number> metrics = cms.metrics();
+        assertEquals(10000L, metrics.get("totalCount").longValue());
+        assertEquals(cms.getErrorBound(), metrics.get("errorBound").longValue());
+        assertEquals(cms.getWidth(), metrics.get("width").intValue());
+    }
+
+    @Test
+    public void testTopKTrackersCountEvictions() {
+        HeavyKeeperTopK<String> heavyKeeper = new HeavyKeeperTopK<>(2, 64, 10, 1.08, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        CountAllTopK<String> countAll = new CountAllTopK<>(0.001, 0.01, 10, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        SpaceSavingTopK<String> spaceSaving = new SpaceSavingTopK<>(10, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        // A cold start that fills the heaps, then hot items that have to evict their way in
+        for (int i = 0; i < 10000; i++) {
+            String item = i < 5000 ? "item" + (i % 1000) : "hot" + (i % 20);
+            heavyKeeper.insert(item);
+            countAll.add(item, 1);
+            spaceSaving.add(item);
+        }
+        Map<String, Number> hk = heavyKeeper.metrics();
+        assertEquals(10000L, hk.get("inserts").longValue());
+        assertEquals(10, hk.get("trackedFlows").intValue());
+        assertTrue(hk.get("decays").longValue() > 0);
+        assertTrue(hk.get("heapEvictions").longValue() > 0);
+
+        Map<String, Number> ca = countAll.metrics();
+        assertEquals(10, ca.get("trackedItems").intValue());
+        assertTrue(ca.get("heapEvictions").longValue() > 0);
+        assertEquals(10000L, ca.get("totalCount").longValue());
+
+        Map<String, Number> ss = spaceSaving.metrics();
+        assertEquals(10, ss.get("trackedItems").intValue());
+        assertTrue(ss.get("evictions").longValue() >= 4990);
+    }
+
+    @Test
+    public void testScalableBloomFilterEmitsGrowthEvents() throws Exception {
+        Path file = Files.createTempFile("growth", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("datastructures.BloomFilterGrowth");
+            recording.start();
+            ScalableBloomFilter<String> filter =
+                    new ScalableBloomFilter<>(0.01, 100, 2.0, 0.5, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+            for (int i = 0; i < 10000; i++) {
+                filter.add("item" + i);
+            }
+            recording.stop();
+            recording.dump(file);
+
+            int stages = filter.metrics().get("stages").intValue();
+            assertTrue(stages > 1);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("datastructures.BloomFilterGrowth"))
+                    .toList();
+            assertEquals(stages - 1, events.size());
+            RecordedEvent last = events.get(events.size() - 1);
+            assertEquals(stages, last.getInt("stages"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testEvictionEventsAreOffByDefault() throws Exception {
+        Path file = Files.createTempFile("eviction", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+            LongSpaceSavingTopK summary = new LongSpaceSavingTopK(4);
+            for (long key = 0; key < 100; key++) {
+                summary.add(key, 1);
+            }
+            recording.stop();
+            recording.dump(file);
+            assertFalse(RecordingFile.readAllEvents(file).stream()
+                    .anyMatch(e -> e.getEventType().getName().equals("datastructures.TopKEviction")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
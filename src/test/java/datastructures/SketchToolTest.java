@@ -0,0 +1,93 @@
+package datastructures;
+
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import serializer.StringSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SketchToolTest {
+
+    @TempDir
+    Path dir;
+
+    // user<i % 5000> <TAB> url, where every third line requests /home; some lines use CRLF or lack the url
+    private Path writeLog(String name, int lines, List<String> urls) throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String url = i % 3 == 0 ? "/home" : "/page/" + i % 700;
+            if (i % 101 == 0) {
+                log.append("user").append(i % 5000).append('\n');
+                continue;
+            }
+            urls.add(url);
+            log.append("user").append(i % 5000).append('\t').append(url).append('\t').append(i)
+                    .append(i % 7 == 0 ? "\r\n" : "\n");
+        }
+        return Files.writeString(dir.resolve(name), log, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSegmentedScanMatchesSequentialSketches() throws IOException {
+        List<String> urls = new ArrayList<>();
+        SketchTool.Options options = SketchTool.parse(new String[]{
+                "--field", "1", "--top", "5", "--threads", "4",
+                writeLog("a.log", 60_000, urls).toString(), writeLog("b.log", 30_000, urls).toString()});
+        options.segmentBytes = 4096; // hundreds of segments, most of them cut mid-line
+        options.readBytes = 16;      // shorter than most lines, so reads carry partial lines and grow the buffer
+        SketchTool.Result result = SketchTool.analyse(options);
+
+        StringSerializer serializer = new StringSerializer(StandardCharsets.UTF_8);
+        HyperLogLog<String> hll = new HyperLogLog<>(options.precision, new XXH3(), serializer);
+        CountMinSketch<String> cms = new CountMinSketch<>(options.epsilon, options.delta, new XXH3(), serializer);
+        urls.forEach(url -> {
+            hll.add(url);
+            cms.add(url, 1);
+        });
+
+        assertEquals(90_000, result.lines);
+        assertEquals(Files.size(dir.resolve("a.log")) + Files.size(dir.resolve("b.log")), result.bytes);
+        assertEquals(hll.estimate(), result.distinct.estimate());
+        assertEquals(cms.getTotalCount(), result.counts.getTotalCount());
+        assertEquals(cms.estimateCount("/home"), result.counts.estimateCount("/home"));
+        assertEquals(cms.estimateCount("/page/1"), result.counts.estimateCount("/page/1"));
+        assertEquals("/home", result.topK.getTopK().keySet().iterator().next());
+    }
+
+    @Test
+    public void testWholeLinesAndMissingTrailingNewline() throws IOException {
+        Path file = Files.writeString(dir.resolve("words.txt"), "a\nb\r\n\na\nc", StandardCharsets.UTF_8);
+        SketchTool.Options options = SketchTool.parse(new String[]{"--delimiter", "space", file.toString()});
+        SketchTool.Result result = SketchTool.analyse(options);
+        assertEquals(5, result.lines);
+        assertEquals(4, result.counts.getTotalCount()); // the empty line is skipped
+        assertEquals(3, result.distinct.estimate());
+        assertEquals(2, result.counts.estimateCount("a"));
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        SketchTool.report(result, options, 1_000_000, new PrintStream(report, true, StandardCharsets.UTF_8));
+        String text = report.toString(StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("lines     5"), text);
+        assertTrue(text.contains("MB/s"), text);
+    }
+
+    @Test
+    public void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SketchTool.parse(new String[]{"--top", "5"}));
+        assertThrows(IllegalArgumentException.class, () -> SketchTool.parse(new String[]{"--bogus", "1", "f"}));
+        assertThrows(IllegalArgumentException.class, () -> SketchTool.parse(new String[]{"--delimiter", "ab", "f"}));
+        assertThrows(IllegalArgumentException.class, () -> SketchTool.parse(new String[]{"f", "--field"}));
+    }
+}
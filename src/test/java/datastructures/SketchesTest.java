@@ -0,0 +1,66 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.MurmurHash3;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SketchesTest {
+    private static final int N = 200_000;
+
+    private final Hasher hasher = new XXH3();
+    private final Serializer<String> serializer = new StringSerializer(StandardCharsets.UTF_8);
+
+    private static List<String> items() {
+        return IntStream.range(0, N).mapToObj(i -> "item" + (i % 50_000)).toList();
+    }
+
+    @Test
+    public void testParallelHyperLogLogMatchesSequential() {
+        HyperLogLog<String> sequential = items().stream().collect(Sketches.toHyperLogLog(12, hasher, serializer));
+        HyperLogLog<String> parallel = items().parallelStream().collect(Sketches.toHyperLogLog(12, hasher, serializer));
+        assertEquals(sequential.estimate(), parallel.estimate());
+        assertEquals(50_000, parallel.estimate(), 50_000 * 0.05);
+    }
+
+    @Test
+    public void testParallelBloomFilterMatchesSequential() {
+        BloomFilter<String> sequential = items().stream().collect(Sketches.toBloomFilter(0.01, 50_000, hasher, serializer));
+        BloomFilter<String> parallel = items().parallelStream().collect(Sketches.toBloomFilter(0.01, 50_000, hasher, serializer));
+        assertEquals(sequential.bitSet, parallel.bitSet);
+        assertEquals(sequential.bitsSetCount, parallel.bitsSetCount);
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(parallel.contains("item" + i));
+        }
+    }
+
+    @Test
+    public void testParallelCountMinSketchMatchesSequential() {
+        CountMinSketch<String> sequential = items().stream().collect(Sketches.toCountMinSketch(0.001, 0.01, hasher, serializer));
+        CountMinSketch<String> parallel = items().parallelStream().collect(Sketches.toCountMinSketch(0.001, 0.01, hasher, serializer));
+        assertEquals(N, parallel.getTotalCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(sequential.estimateCount("item" + i), parallel.estimateCount("item" + i));
+            assertTrue(parallel.estimateCount("item" + i) >= 4);
+        }
+    }
+
+    @Test
+    public void testBloomFilterMergeRejectsIncompatibleFilters() {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 1000, hasher, serializer);
+        assertThrows(IllegalArgumentException.class,
+                () -> filter.merge(new BloomFilter<>(0.01, 2000, hasher, serializer)));
+        assertThrows(IllegalArgumentException.class,
+                () -> filter.merge(new BloomFilter<>(0.01, 1000, new MurmurHash3(), serializer)));
+    }
+}
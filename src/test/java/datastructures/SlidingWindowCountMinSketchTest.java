@@ -0,0 +1,65 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlidingWindowCountMinSketchTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private SlidingWindowCountMinSketch<String> newSketch() {
+        // 5 minute window in 5 one-minute slices
+        return new SlidingWindowCountMinSketch<>(
+                0.001, 0.01, Duration.ofMinutes(5), 5, now::get,
+                new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testCountsExpireAfterWindow() {
+        SlidingWindowCountMinSketch<String> cms = newSketch();
+
+        cms.add("old", 100);
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        cms.add("recent", 50);
+        assertTrue(cms.estimateCount("old") >= 100);
+        assertEquals(150, cms.getTotalCount());
+
+        // "old" falls out of the window, "recent" is still inside
+        now.addAndGet(Duration.ofMinutes(3).toMillis());
+        assertEquals(0, cms.estimateCount("old"));
+        assertTrue(cms.estimateCount("recent") >= 50);
+        assertEquals(50, cms.getTotalCount());
+        assertEquals(Math.round(0.001 * 50), cms.getErrorBound());
+
+        // A long gap clears everything
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        assertEquals(0, cms.estimateCount("recent"));
+        assertEquals(0, cms.getTotalCount());
+    }
+
+    @Test
+    public void testContinuousStreamKeepsWindowedCount() {
+        SlidingWindowCountMinSketch<String> cms = newSketch();
+
+        // One event per second for 20 minutes: the window always holds 4 to 5 minutes of events
+        for (int second = 0; second < 20 * 60; second++) {
+            cms.add("steady", 1);
+            now.addAndGet(1000);
+            if (second >= 5 * 60) {
+                long estimate = cms.estimateCount("steady");
+                assertTrue(estimate >= 4 * 60 && estimate <= 5 * 60 + cms.getErrorBound(),
+                        "Unexpected windowed count " + estimate + " at second " + second);
+            }
+        }
+    }
+
+}
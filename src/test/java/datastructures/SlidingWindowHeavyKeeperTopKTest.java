@@ -0,0 +1,52 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlidingWindowHeavyKeeperTopKTest {
+
+    @Test
+    public void testOldHeavyHittersFade() {
+        AtomicLong now = new AtomicLong(0);
+        SlidingWindowHeavyKeeperTopK<String> tracker = new SlidingWindowHeavyKeeperTopK<>(
+                3, 512, 3, 1.08, Duration.ofSeconds(20), now::get,
+                new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+
+        // First minute: "yesterday" dominates
+        for (int second = 0; second < 60; second++) {
+            for (int i = 0; i < 100; i++) {
+                tracker.insert("yesterday");
+                tracker.insert("noise" + second + "-" + i);
+            }
+            now.addAndGet(1000);
+        }
+        assertEquals("yesterday", tracker.getTopK().keySet().iterator().next());
+
+        // Next two minutes: "today" takes over at a lower rate
+        for (int second = 0; second < 120; second++) {
+            for (int i = 0; i < 30; i++) {
+                tracker.insert("today");
+                tracker.insert("noise" + second + "-" + i);
+            }
+            now.addAndGet(1000);
+        }
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(tracker.getTopK().entrySet());
+        assertEquals("today", top.get(0).getKey());
+
+        // After a long idle period everything has decayed away
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        assertTrue(tracker.getTopK().isEmpty());
+    }
+
+}
@@ -0,0 +1,97 @@
+package datastructures;
+
+import hasher.Hasher;
+import hasher.XXH3;
+import org.junit.jupiter.api.Test;
+import serializer.Serializer;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SlidingWindowHyperLogLogTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final Hasher hasher = new XXH3();
+    private final Serializer<String> serializer = new StringSerializer(StandardCharsets.UTF_8);
+
+    private SlidingWindowHyperLogLog<String> newSketch() {
+        return new SlidingWindowHyperLogLog<>(12, Duration.ofMinutes(15), now::get, hasher, serializer);
+    }
+
+    @Test
+    public void testEveryWindowMatchesHyperLogLogOfItsItems() {
+        SlidingWindowHyperLogLog<String> sketch = newSketch();
+        // 1000 new visitors per minute plus 200 returning ones, for 30 minutes
+        for (int minute = 0; minute < 30; minute++) {
+            for (int i = 0; i < 1200; i++) {
+                now.addAndGet(50); // Minute k covers (k, k + 1], and a window covers ages below its length
+                sketch.add(i < 1000 ? "visitor" + (minute * 1000 + i) : "regular" + i);
+            }
+        }
+        for (int minutes : new int[]{1, 5, 15}) {
+            HyperLogLog<String> expected = new HyperLogLog<>(12, hasher, serializer);
+            for (int minute = 30 - minutes; minute < 30; minute++) {
+                for (int i = 0; i < 1200; i++) {
+                    expected.add(i < 1000 ? "visitor" + (minute * 1000 + i) : "regular" + i);
+                }
+            }
+            assertEquals(expected.estimate(), sketch.estimate(Duration.ofMinutes(minutes)), "window " + minutes);
+            assertEquals(minutes * 1000 + 200, sketch.estimate(Duration.ofMinutes(minutes)), (minutes * 1000 + 200) * 0.05);
+        }
+        assertEquals(sketch.estimate(Duration.ofMinutes(15)), sketch.estimate());
+    }
+
+    @Test
+    public void testItemsExpireAfterTheWindow() {
+        SlidingWindowHyperLogLog<String> sketch = newSketch();
+        for (int i = 0; i < 500; i++) {
+            sketch.add("item" + i);
+        }
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertEquals(500, sketch.estimate(), 25);
+        assertEquals(0, sketch.estimate(Duration.ofMinutes(5)));
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    public void testOriginIsAdvancedOverLongRuns() {
+        SlidingWindowHyperLogLog<String> sketch = newSketch();
+        sketch.add("ancient");
+        // 2^30 ms is about 12 days; run for 40 days with a burst of items every day
+        for (int day = 0; day < 40; day++) {
+            now.addAndGet(Duration.ofDays(1).toMillis());
+            for (int i = 0; i < 100; i++) {
+                sketch.add("day" + day + "-" + i);
+            }
+            now.addAndGet(Duration.ofMinutes(1).toMillis());
+            assertEquals(100, sketch.estimate(), 5, "day " + day);
+        }
+    }
+
+    @Test
+    public void testLateEventsDoNotMoveTimestampsBack() {
+        SlidingWindowHyperLogLog<String> sketch = newSketch();
+        sketch.add("item");
+        now.addAndGet(-Duration.ofMinutes(20).toMillis());
+        sketch.add("item");
+        now.addAndGet(Duration.ofMinutes(20).toMillis());
+        assertEquals(1, sketch.estimate(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testWindowsLongerThanTheMaximumAreRejected() {
+        SlidingWindowHyperLogLog<String> sketch = newSketch();
+        assertThrows(IllegalArgumentException.class, () -> sketch.estimate(Duration.ofMinutes(16)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlidingWindowHyperLogLog<>(12, Duration.ZERO, now::get, hasher, serializer));
+        assertEquals(MemoryFootprint.shallowSize(SlidingWindowHyperLogLog.class)
+                + MemoryFootprint.array(4096 * SlidingWindowHyperLogLog.RANKS, Integer.BYTES)
+                + MemoryFootprint.array(4096, Byte.BYTES), sketch.memoryFootprintBytes());
+    }
+}
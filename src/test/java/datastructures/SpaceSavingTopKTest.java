@@ -0,0 +1,130 @@
+package datastructures;
+
+import hasher.MurmurHash3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import serializer.StringSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpaceSavingTopKTest {
+
+    private static long[] zipfStream(int distinct, int events, double skew, long seed) {
+        double[] cdf = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        Random random = new Random(seed);
+        long[] stream = new long[events];
+        for (int e = 0; e < events; e++) {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            stream[e] = idx < 0 ? -idx - 1 : idx;
+        }
+        return stream;
+    }
+
+    private static void assertSpaceSavingGuarantees(LongSpaceSavingTopK summary, Map<Long, Long> trueCounts) {
+        long total = summary.getTotalCount();
+        int k = summary.getK();
+        List<Map.Entry<Long, Long>> top = summary.getTopK();
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getValue() >= top.get(i).getValue(), "Result is not sorted");
+        }
+        for (Map.Entry<Long, Long> entry : top) {
+            long trueCount = trueCounts.get(entry.getKey());
+            assertTrue(entry.getValue() >= trueCount, "Underestimate for " + entry.getKey());
+            assertTrue(entry.getValue() - trueCount <= total / k, "Overestimate beyond N/k for " + entry.getKey());
+            assertTrue(summary.guaranteedCount(entry.getKey()) <= trueCount, "Guaranteed count too high");
+        }
+        for (Map.Entry<Long, Long> entry : trueCounts.entrySet()) {
+            if (entry.getValue() > total / k) {
+                assertTrue(summary.contains(entry.getKey()), "Frequent key " + entry.getKey() + " not tracked");
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "k={0}, distinct={1}, events={2}, skew={3}")
+    @CsvSource({
+            "10, 1000, 100000, 1.2",
+            "100, 100000, 1000000, 1.0",
+            "1000, 100000, 1000000, 0.8",
+    })
+    public void testDeterministicBoundsOnZipfianStream(int k, int distinct, int events, double skew) {
+        LongSpaceSavingTopK summary = new LongSpaceSavingTopK(k);
+        Map<Long, Long> trueCounts = new HashMap<>();
+        for (long key : zipfStream(distinct, events, skew, 42)) {
+            summary.add(key);
+            trueCounts.merge(key, 1L, Long::sum);
+        }
+
+        assertEquals(events, summary.getTotalCount());
+        assertEquals(k, summary.size());
+        assertSpaceSavingGuarantees(summary, trueCounts);
+    }
+
+    @Test
+    public void testWeightedUpdates() {
+        LongSpaceSavingTopK summary = new LongSpaceSavingTopK(50);
+        Map<Long, Long> trueCounts = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(1000) < 900 ? random.nextInt(20) : random.nextInt(100000);
+            long value = 1 + random.nextInt(10);
+            summary.add(key, value);
+            trueCounts.merge(key, value, Long::sum);
+        }
+        assertSpaceSavingGuarantees(summary, trueCounts);
+    }
+
+    @Test
+    public void testMergeOfPartitionedStreams() {
+        long[] stream = zipfStream(50000, 400000, 1.1, 11);
+        LongSpaceSavingTopK left = new LongSpaceSavingTopK(200);
+        LongSpaceSavingTopK right = new LongSpaceSavingTopK(200);
+        Map<Long, Long> trueCounts = new HashMap<>();
+        for (int i = 0; i < stream.length; i++) {
+            (i % 2 == 0 ? left : right).add(stream[i]);
+            trueCounts.merge(stream[i], 1L, Long::sum);
+        }
+
+        left.merge(right);
+        assertEquals(stream.length, left.getTotalCount());
+        assertSpaceSavingGuarantees(left, trueCounts);
+    }
+
+    @Test
+    public void testGenericTrackerReportsItems() {
+        SpaceSavingTopK<String> left = new SpaceSavingTopK<>(
+                20, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+        SpaceSavingTopK<String> right = new SpaceSavingTopK<>(
+                20, new MurmurHash3(), new StringSerializer(StandardCharsets.UTF_8));
+
+        for (int i = 0; i < 100000; i++) {
+            left.add("Player" + i);
+            right.add("Player" + (i + 100000));
+        }
+        for (int i = 0; i < 20000; i++) {
+            left.add("Maradona");
+            right.add("Messi", 2);
+        }
+
+        left.merge(right);
+        List<Map.Entry<String, Long>> top = left.getTopK();
+        assertEquals("Messi", top.get(0).getKey());
+        assertEquals("Maradona", top.get(1).getKey());
+        assertTrue(left.estimateCount("Messi") >= 40000);
+        assertTrue(left.guaranteedCount("Maradona") <= 20000);
+    }
+
+}